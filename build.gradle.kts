@@ -25,6 +25,10 @@ val hytaleServerJar = hytaleServerInput?.let { input ->
 }
 
 dependencies {
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
     if (hytaleServerJar != null) {
         compileOnly(files(hytaleServerJar))
     } else {
@@ -45,3 +49,7 @@ tasks.withType<JavaCompile>().configureEach {
     options.release.set(25)
     options.encoding = "UTF-8"
 }
+
+tasks.test {
+    useJUnitPlatform()
+}
@@ -13,15 +13,17 @@ import com.hypixel.hytale.server.core.event.events.player.PlayerChatEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerInteractEvent;
 import com.hypixel.hytale.server.core.event.events.player.AddPlayerToWorldEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
+import com.hypixel.hytale.server.core.event.events.permissions.PlayerGroupEvent;
 import com.hypixel.hytale.server.core.inventory.ItemStack;
 import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
-import com.hypixel.hytale.server.core.permissions.PermissionsModule;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.ParticleUtil;
 import com.hypixel.hytale.server.core.universe.world.SoundUtil;
 import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.events.AddWorldEvent;
+import com.hypixel.hytale.server.core.universe.world.events.RemoveWorldEvent;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hypixel.hytale.server.core.util.Config;
 import com.hypixel.hytale.server.core.util.NotificationUtil;
@@ -36,22 +38,22 @@ import dev.lussuria.admintools.commands.ShowHologramCommand;
 import dev.lussuria.admintools.commands.ShowTitleCommand;
 import dev.lussuria.admintools.commands.RoleCommand;
 import dev.lussuria.admintools.asset.AssetPackInstaller;
+import dev.lussuria.admintools.chat.ChatFormatter;
 import dev.lussuria.admintools.config.AdminToolsConfig;
 import dev.lussuria.admintools.hologram.HologramManager;
 import dev.lussuria.admintools.hologram.HologramSpawner;
-import dev.lussuria.admintools.role.ChatRole;
+import dev.lussuria.admintools.role.PlayerRoleCache;
 import dev.lussuria.admintools.role.RoleManager;
 import dev.lussuria.admintools.util.MessageUtil;
+import dev.lussuria.admintools.util.OnlinePlayers;
+import dev.lussuria.admintools.util.ParsedMessageCache;
+import dev.lussuria.admintools.util.Placeholders;
+import dev.lussuria.admintools.util.WorldCache;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.EnumSet;
 import java.util.Map;
-import java.util.LinkedHashMap;
-import java.util.Locale;
-import java.util.HashSet;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -68,6 +70,8 @@ public final class AdminToolsPlugin extends JavaPlugin {
     private final EnumSet<InteractionType> allowedInteractionTypes = EnumSet.noneOf(InteractionType.class);
     private HologramManager hologramManager;
     private RoleManager roleManager;
+    private PlayerRoleCache playerRoleCache;
+    private ChatFormatter chatFormatter;
 
     public AdminToolsPlugin(JavaPluginInit init) {
         super(init);
@@ -86,16 +90,29 @@ public final class AdminToolsPlugin extends JavaPlugin {
         AssetPackInstaller.installToMods(getLogger(), getDataDirectory());
         configureInteractionTypes(cfg.customItem);
 
-        hologramManager = new HologramManager(getLogger(), getDataDirectory(), cfg.commands.hologramCommands.defaultScale);
+        AdminToolsConfig.HologramCommands holoConfig = cfg.commands.hologramCommands;
+        hologramManager = new HologramManager(getLogger(), getDataDirectory(), holoConfig.defaultScale, cfg.storage);
+        hologramManager.setQuotas(holoConfig.maxPerCreator, holoConfig.maxPerWorld);
+        if (holoConfig.streamingEnabled) {
+            hologramManager.enableStreaming(holoConfig.viewRadius, holoConfig.despawnRadius);
+        }
         hologramManager.load();
 
-        roleManager = new RoleManager(getLogger(), getDataDirectory());
+        roleManager = new RoleManager(getLogger(), getDataDirectory(), cfg.storage);
         roleManager.load();
+        playerRoleCache = new PlayerRoleCache(roleManager);
+        chatFormatter = new ChatFormatter(cfg.chat, playerRoleCache);
+        registerPlaceholders();
 
         registerCommands(cfg);
         registerEvents(cfg);
 
-        scheduler.schedule(() -> hologramManager.spawnAllHolograms(), 2, TimeUnit.SECONDS);
+        if (hologramManager.isStreaming()) {
+            long interval = Math.max(100, holoConfig.streamIntervalMillis);
+            scheduler.scheduleAtFixedRate(() -> hologramManager.updateStreaming(), 2000, interval, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler.schedule(() -> hologramManager.spawnAllHolograms(), 2, TimeUnit.SECONDS);
+        }
     }
 
     @Override
@@ -104,11 +121,27 @@ public final class AdminToolsPlugin extends JavaPlugin {
         if (hologramManager != null) {
             hologramManager.despawnAllHolograms();
             hologramManager.save();
+            hologramManager.shutdown();
         }
         if (roleManager != null) {
             roleManager.save();
+            roleManager.shutdown();
         }
         cleanupHolograms();
+        Placeholders.clearGlobals();
+        OnlinePlayers.clear();
+        ParsedMessageCache parsed = ParsedMessageCache.shared();
+        getLogger().at(java.util.logging.Level.INFO).log("Parsed message cache: " + parsed.getHits() + " hits, "
+            + parsed.getMisses() + " misses, " + parsed.size() + " entries");
+        parsed.clear();
+    }
+
+    /**
+     * Server-wide placeholders; each is only evaluated when a template uses it.
+     */
+    private void registerPlaceholders() {
+        Placeholders.registerGlobal("online", () -> Integer.toString(OnlinePlayers.count()));
+        Placeholders.registerGlobal("worlds", () -> Integer.toString(WorldCache.worlds().size()));
     }
 
     public AdminToolsConfig getConfig() {
@@ -153,146 +186,6 @@ public final class AdminToolsPlugin extends JavaPlugin {
         }
     }
 
-    private String resolveRoleForPlayer(PlayerRef playerRef, AdminToolsConfig.Chat chat) {
-        if (chat == null || !chat.includeRole) {
-            return "";
-        }
-        if (playerRef == null || playerRef.getUuid() == null) {
-            return chat.defaultRole;
-        }
-        Set<String> groups = null;
-        try {
-            PermissionsModule permissions = PermissionsModule.get();
-            if (permissions != null) {
-                groups = permissions.getGroupsForUser(playerRef.getUuid());
-            }
-        } catch (Exception ignored) {
-            // Best-effort.
-        }
-        return resolveRoleFromGroups(groups, chat);
-    }
-
-    private String resolveRoleFromGroups(Set<String> groups, AdminToolsConfig.Chat chat) {
-        String selectedGroup = selectGroup(groups, chat.rolePriority);
-        Map<String, String> mappings = parseRoleMappings(chat.roleMappings);
-        if (selectedGroup != null && mappings.containsKey(selectedGroup)) {
-            return mappings.get(selectedGroup);
-        }
-        if (selectedGroup != null && chat.useGroupNameIfNoMapping) {
-            return selectedGroup;
-        }
-        return chat.defaultRole;
-    }
-
-    private String selectGroup(Set<String> groups, String[] priority) {
-        if (groups == null || groups.isEmpty()) {
-            return null;
-        }
-        Set<String> upperGroups = new HashSet<>();
-        for (String group : groups) {
-            if (group == null || group.isBlank()) {
-                continue;
-            }
-            upperGroups.add(group.toUpperCase(Locale.ROOT));
-        }
-        if (priority != null) {
-            for (String group : priority) {
-                if (group == null || group.isBlank()) {
-                    continue;
-                }
-                String key = group.toUpperCase(Locale.ROOT);
-                if (upperGroups.contains(key)) {
-                    return key;
-                }
-            }
-        }
-        ArrayList<String> sorted = new ArrayList<>(upperGroups);
-        Collections.sort(sorted);
-        return sorted.isEmpty() ? null : sorted.get(0);
-    }
-
-    private Map<String, String> parseRoleMappings(String[] mappings) {
-        Map<String, String> result = new LinkedHashMap<>();
-        if (mappings == null) {
-            return result;
-        }
-        for (String entry : mappings) {
-            if (entry == null || entry.isBlank()) {
-                continue;
-            }
-            int idx = entry.indexOf('=');
-            if (idx < 0) {
-                idx = entry.indexOf(':');
-            }
-            if (idx < 0) {
-                continue;
-            }
-            String key = entry.substring(0, idx).trim();
-            String value = entry.substring(idx + 1).trim();
-            if (!key.isEmpty()) {
-                result.put(key.toUpperCase(Locale.ROOT), value);
-            }
-        }
-        return result;
-    }
-
-    private Message buildChatMessage(PlayerRef playerRef, String content, AdminToolsConfig.Chat chat) {
-        // Try dynamic roles first
-        ChatRole resolved = null;
-        if (chat.includeRole && roleManager != null && playerRef != null && playerRef.getUuid() != null) {
-            Set<String> groups = null;
-            try {
-                PermissionsModule permissions = PermissionsModule.get();
-                if (permissions != null) {
-                    groups = permissions.getGroupsForUser(playerRef.getUuid());
-                }
-            } catch (Exception ignored) {
-            }
-            resolved = roleManager.resolveRole(playerRef.getUuid(), groups);
-        }
-
-        // If a ChatRole was found, build a rich colored message
-        if (resolved != null) {
-            Message result = Message.empty();
-
-            Message roleMsg = Message.raw(resolved.getDisplayName() + " ").color(resolved.getColor());
-            if (resolved.isBold()) {
-                roleMsg = roleMsg.bold(true);
-            }
-            if (resolved.isItalic()) {
-                roleMsg = roleMsg.italic(true);
-            }
-            result.insert(roleMsg);
-
-            result.insert(Message.raw(playerRef.getUsername()).color(chat.nameColor));
-            result.insert(Message.raw(" >> ").color(chat.separatorColor));
-
-            Message contentMsg;
-            if (chat.parseMessages) {
-                try {
-                    contentMsg = Message.parse(content);
-                } catch (Exception e) {
-                    contentMsg = Message.raw(content);
-                }
-            } else {
-                contentMsg = Message.raw(content);
-            }
-            contentMsg = contentMsg.color(chat.messageColor);
-            result.insert(contentMsg);
-
-            return result;
-        }
-
-        // Fallback to legacy format string
-        String role = resolveRoleForPlayer(playerRef, chat);
-        Map<String, String> placeholders = Map.of(
-            "player", playerRef.getUsername(),
-            "message", content,
-            "role", role == null ? "" : role
-        );
-        return MessageUtil.renderMessage(chat.format, placeholders, chat.parseMessages);
-    }
-
     private void registerCommands(AdminToolsConfig cfg) {
         CommandRegistry commands = getCommandRegistry();
 
@@ -332,7 +225,7 @@ public final class AdminToolsPlugin extends JavaPlugin {
                 if (!cfg.chat.enabled) {
                     return event;
                 }
-                event.setFormatter((playerRef, content) -> buildChatMessage(playerRef, content, cfg.chat));
+                event.setFormatter(chatFormatter::format);
                 return event;
             })
         );
@@ -361,7 +254,10 @@ public final class AdminToolsPlugin extends JavaPlugin {
             // Delay notification so the player's client is fully loaded
             scheduler.schedule(() -> {
                 try {
-                    Map<String, String> placeholders = Map.of("player", username);
+                    Placeholders placeholders = Placeholders.of("player", username);
+                    if (world != null) {
+                        placeholders.lazy("world", world::getName);
+                    }
                     Message title = MessageUtil.renderMessage(cfg.joinNotification.title, placeholders, cfg.joinNotification.parseMessages);
                     Message body = MessageUtil.renderMessage(cfg.joinNotification.body, placeholders, cfg.joinNotification.parseMessages);
                     NotificationStyle style = parseNotificationStyle(cfg.joinNotification.style);
@@ -392,13 +288,45 @@ public final class AdminToolsPlugin extends JavaPlugin {
             }, 2, TimeUnit.SECONDS);
         });
 
+        events.registerGlobal(AddWorldEvent.class, event -> WorldCache.invalidate());
+        events.registerGlobal(RemoveWorldEvent.class, event -> WorldCache.invalidate());
+
         events.register(PlayerDisconnectEvent.class, event -> {
             PlayerRef playerRef = event.getPlayerRef();
             if (playerRef != null) {
                 joinNotifiedPlayers.remove(playerRef.getUuid());
+                // Untrack first so a join load still in flight sees the player gone.
+                OnlinePlayers.untrack(playerRef);
+                playerRoleCache.invalidate(playerRef.getUuid());
+                roleManager.unloadAssignment(playerRef.getUuid());
             }
         });
 
+        boolean chatRoles = cfg.chat.enabled && cfg.chat.includeRole;
+        events.registerGlobal(AddPlayerToWorldEvent.class, event -> {
+            if (event.getHolder() == null) {
+                return;
+            }
+            PlayerRef playerRef = event.getHolder().getComponent(PlayerRef.getComponentType());
+            if (playerRef != null) {
+                OnlinePlayers.track(playerRef, event.getWorld());
+                UUID playerUuid = playerRef.getUuid();
+                // The assignment shard is read off the join path; chat falls back to
+                // group roles until it is loaded.
+                scheduler.execute(() -> {
+                    roleManager.loadAssignment(playerUuid);
+                    if (OnlinePlayers.findByUuid(playerUuid) == null) {
+                        roleManager.unloadAssignment(playerUuid);
+                    } else if (chatRoles) {
+                        playerRoleCache.refresh(playerUuid);
+                    }
+                });
+            }
+        });
+        if (chatRoles) {
+            events.registerGlobal(PlayerGroupEvent.class, event -> playerRoleCache.invalidate(event.getPlayerUuid()));
+        }
+
         events.registerGlobal(PlayerInteractEvent.class, event -> {
             if (!cfg.customItem.enabled) {
                 return;
@@ -424,7 +352,7 @@ public final class AdminToolsPlugin extends JavaPlugin {
 
             if (!cooldownReady(playerRefComponent.getUuid(), cfg.customItem.cooldownSeconds)) {
                 if (cfg.customItem.cooldownMessage != null && !cfg.customItem.cooldownMessage.isBlank()) {
-                    Map<String, String> placeholders = Map.of("player", playerRefComponent.getUsername());
+                    Placeholders placeholders = Placeholders.of("player", playerRefComponent.getUsername());
                     playerRefComponent.sendMessage(
                         MessageUtil.renderMessage(cfg.customItem.cooldownMessage, placeholders, cfg.customItem.parseMessages)
                     );
@@ -0,0 +1,167 @@
+package dev.lussuria.admintools.chat;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import dev.lussuria.admintools.config.AdminToolsConfig;
+import dev.lussuria.admintools.role.PlayerRoleCache;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds chat lines. The format, role mappings and group priority list are compiled
+ * once from the config, role prefixes and labels are shared components, and a
+ * player's groups come from {@link PlayerRoleCache}; per message only the content
+ * itself is parsed.
+ */
+public final class ChatFormatter {
+    private static final int MAX_ROLE_LABELS = 256;
+
+    private final AdminToolsConfig.Chat chat;
+    private final PlayerRoleCache roleCache;
+    private final Map<String, Integer> groupRanks;
+    private final Map<String, String> roleMappings;
+    private final ChatTemplate template;
+    private final Message separator;
+    private final Map<String, Message> roleLabels = new ConcurrentHashMap<>();
+
+    public ChatFormatter(AdminToolsConfig.Chat chat, PlayerRoleCache roleCache) {
+        this.chat = chat;
+        this.roleCache = roleCache;
+        this.groupRanks = compileRanks(chat.rolePriority);
+        this.roleMappings = compileMappings(chat.roleMappings);
+        this.template = ChatTemplate.compile(chat.format, chat.parseMessages);
+        this.separator = Message.raw(" >> ").color(chat.separatorColor);
+    }
+
+    public Message format(PlayerRef playerRef, String content) {
+        PlayerRoleCache.Entry entry = null;
+        if (chat.includeRole && playerRef != null && playerRef.getUuid() != null) {
+            entry = roleCache.get(playerRef.getUuid());
+        }
+
+        // A dynamic ChatRole gets a rich colored message
+        if (entry != null && entry.role() != null) {
+            Message result = Message.empty();
+            result.insert(entry.prefix());
+            result.insert(Message.raw(playerRef.getUsername()).color(chat.nameColor));
+            result.insert(separator);
+            result.insert(toMessage(content, chat.parseMessages).color(chat.messageColor));
+            return result;
+        }
+
+        // Fallback to the compiled legacy format
+        String role = legacyRole(entry);
+        return template.render(
+            Message.raw(playerRef.getUsername()),
+            roleLabel(role == null ? "" : role),
+            toMessage(content, chat.parseMessages)
+        );
+    }
+
+    /**
+     * Role labels come from a small set (mappings, group names, the default), so
+     * their components are built once and shared.
+     */
+    private Message roleLabel(String label) {
+        Message message = roleLabels.get(label);
+        if (message == null) {
+            if (roleLabels.size() >= MAX_ROLE_LABELS) {
+                roleLabels.clear();
+            }
+            message = toMessage(label, chat.parseMessages);
+            roleLabels.put(label, message);
+        }
+        return message;
+    }
+
+    static Message toMessage(String text, boolean parse) {
+        if (!parse) {
+            return Message.raw(text);
+        }
+        try {
+            return Message.parse(text);
+        } catch (Exception e) {
+            return Message.raw(text);
+        }
+    }
+
+    private String legacyRole(PlayerRoleCache.Entry entry) {
+        if (!chat.includeRole) {
+            return "";
+        }
+        if (entry == null) {
+            return chat.defaultRole;
+        }
+        String selectedGroup = selectGroup(entry.groups());
+        if (selectedGroup == null) {
+            return chat.defaultRole;
+        }
+        String mapped = roleMappings.get(selectedGroup);
+        if (mapped != null) {
+            return mapped;
+        }
+        return chat.useGroupNameIfNoMapping ? selectedGroup : chat.defaultRole;
+    }
+
+    /**
+     * Highest-priority group from the configured list, otherwise the alphabetically first one.
+     */
+    private String selectGroup(Set<String> upperGroups) {
+        String best = null;
+        int bestRank = Integer.MAX_VALUE;
+        String first = null;
+        for (String group : upperGroups) {
+            Integer rank = groupRanks.get(group);
+            if (rank != null && rank < bestRank) {
+                bestRank = rank;
+                best = group;
+            }
+            if (first == null || group.compareTo(first) < 0) {
+                first = group;
+            }
+        }
+        return best != null ? best : first;
+    }
+
+    private static Map<String, Integer> compileRanks(String[] priority) {
+        Map<String, Integer> ranks = new HashMap<>();
+        if (priority == null) {
+            return ranks;
+        }
+        for (String group : priority) {
+            if (group != null && !group.isBlank()) {
+                ranks.putIfAbsent(group.toUpperCase(Locale.ROOT), ranks.size());
+            }
+        }
+        return ranks;
+    }
+
+    private static Map<String, String> compileMappings(String[] mappings) {
+        Map<String, String> result = new HashMap<>();
+        if (mappings == null) {
+            return result;
+        }
+        for (String entry : mappings) {
+            if (entry == null || entry.isBlank()) {
+                continue;
+            }
+            int idx = entry.indexOf('=');
+            if (idx < 0) {
+                idx = entry.indexOf(':');
+            }
+            if (idx < 0) {
+                continue;
+            }
+            String key = entry.substring(0, idx).trim();
+            String value = entry.substring(idx + 1).trim();
+            if (!key.isEmpty()) {
+                result.put(key.toUpperCase(Locale.ROOT), value);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.lussuria.admintools.chat;
+
+import com.hypixel.hytale.server.core.Message;
+import dev.lussuria.admintools.util.MessageTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The legacy chat format compiled into literal components and {@code {player}},
+ * {@code {role}} and {@code {message}} slots. Literals are parsed once at compile
+ * time, so rendering only allocates the per-message parts. Formatting markup has
+ * to open and close within one literal; it cannot span a slot.
+ */
+final class ChatTemplate {
+    enum Slot {
+        PLAYER, ROLE, MESSAGE
+    }
+
+    // Each element is either a prebuilt literal Message or a Slot.
+    private final Object[] segments;
+
+    private ChatTemplate(Object[] segments) {
+        this.segments = segments;
+    }
+
+    static ChatTemplate compile(String format, boolean parse) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (MessageTemplate.Segment segment : MessageTemplate.compile(format).segments()) {
+            Slot slot = segment.slot() ? slotFor(segment.text()) : null;
+            if (slot == null) {
+                // Unknown slots stay as written, like any other literal text.
+                literal.append(segment.slot() ? "{" + segment.text() + "}" : segment.text());
+                continue;
+            }
+            if (literal.length() > 0) {
+                segments.add(ChatFormatter.toMessage(literal.toString(), parse));
+                literal.setLength(0);
+            }
+            segments.add(slot);
+        }
+        if (literal.length() > 0) {
+            segments.add(ChatFormatter.toMessage(literal.toString(), parse));
+        }
+        return new ChatTemplate(segments.toArray());
+    }
+
+    Message render(Message player, Message role, Message content) {
+        Message result = Message.empty();
+        for (Object segment : segments) {
+            if (segment instanceof Slot slot) {
+                result.insert(switch (slot) {
+                    case PLAYER -> player;
+                    case ROLE -> role;
+                    case MESSAGE -> content;
+                });
+            } else {
+                result.insert((Message) segment);
+            }
+        }
+        return result;
+    }
+
+    private static Slot slotFor(String name) {
+        return switch (name) {
+            case "player" -> Slot.PLAYER;
+            case "role" -> Slot.ROLE;
+            case "message" -> Slot.MESSAGE;
+            default -> null;
+        };
+    }
+}
@@ -13,9 +13,7 @@ import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import dev.lussuria.admintools.config.AdminToolsConfig;
 import dev.lussuria.admintools.util.MessageUtil;
-
-import java.util.HashMap;
-import java.util.Map;
+import dev.lussuria.admintools.util.Placeholders;
 
 public final class HealCommand extends AbstractTargetPlayerCommand {
     private final AdminToolsConfig.Heal config;
@@ -57,9 +55,10 @@ public final class HealCommand extends AbstractTargetPlayerCommand {
         String senderName = context.sender().getDisplayName();
         String targetName = targetPlayer == null ? "unknown" : targetPlayer.getUsername();
 
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("sender", senderName);
-        placeholders.put("player", targetName);
+        Placeholders placeholders = Placeholders.create()
+            .with("sender", senderName)
+            .with("player", targetName)
+            .lazy("world", world::getName);
 
         context.sendMessage(MessageUtil.renderMessage(config.message, placeholders, config.parseMessages));
 
@@ -17,9 +17,13 @@ import dev.lussuria.admintools.hologram.HologramData;
 import dev.lussuria.admintools.hologram.HologramManager;
 import dev.lussuria.admintools.ui.HologramEditorPage;
 import dev.lussuria.admintools.util.CommandInputUtil;
+import dev.lussuria.admintools.util.OnlinePlayers;
 
-import java.util.Collection;
+import java.util.Locale;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public final class HologramCommand extends AbstractCommand {
     private final AdminToolsPlugin plugin;
@@ -37,19 +41,49 @@ public final class HologramCommand extends AbstractCommand {
 
         addSubCommand(new CreateSubCommand(plugin, config));
         addSubCommand(new DeleteSubCommand(plugin));
+        addSubCommand(new PurgeSubCommand(plugin));
         addSubCommand(new EditSubCommand(plugin));
-        addSubCommand(new ListSubCommand(plugin));
+        addSubCommand(new ListSubCommand(plugin, config));
+        addSubCommand(new SearchSubCommand(plugin, config));
         addSubCommand(new AddLineSubCommand(plugin));
         addSubCommand(new RemoveLineSubCommand(plugin));
         addSubCommand(new MoveHereSubCommand(plugin));
+        addSubCommand(new ExportSubCommand(plugin));
+        addSubCommand(new ImportSubCommand(plugin));
     }
 
     @Override
     protected CompletableFuture<Void> execute(CommandContext context) {
-        context.sendMessage(Message.raw("Usage: /holo <create|edit|delete|list|addline|removeline|movehere>"));
+        context.sendMessage(Message.raw("Usage: /holo <create|edit|delete|purge|list|search|addline|removeline|movehere|export|import>"));
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * A player id from "me", a UUID or an online player's name. Replies and
+     * returns null when it cannot be resolved.
+     */
+    static UUID resolvePlayerId(CommandContext context, Player senderEntity, String input) {
+        if (input.equalsIgnoreCase("me")) {
+            if (senderEntity == null) {
+                context.sendMessage(Message.raw("'me' can only be used by a player."));
+                return null;
+            }
+            return senderEntity.getPlayerRef().getUuid();
+        }
+        try {
+            return UUID.fromString(input);
+        } catch (IllegalArgumentException ignored) {
+            // Not a UUID; try an online player's name.
+        }
+        PlayerRef player = CommandInputUtil.findOnlinePlayerByName(input);
+        if (player == null) {
+            context.sendMessage(Message.raw("Player '" + input + "' not found. Offline players can be given by UUID."
+                + CommandInputUtil.didYouMean(OnlinePlayers.suggestNames(input, CommandInputUtil.SUGGESTION_LIMIT))));
+            return null;
+        }
+        return player.getUuid();
+    }
+
     static final class CreateSubCommand extends AbstractCommand {
         private final AdminToolsPlugin plugin;
         private final AdminToolsConfig.HologramCommands config;
@@ -105,9 +139,13 @@ public final class HologramCommand extends AbstractCommand {
                     world.getName(),
                     playerRef.getUuid()
                 );
-                hologram.getLines().add("New Hologram: " + name);
-                hologram.getLines().add("Use /holo edit " + name);
-                hologram.setLineSpacing(config.defaultLineSpacing);
+                if (hologram == null) {
+                    senderEntity.sendMessage(Message.raw(quotaMessage(manager, world.getName(), playerRef.getUuid())));
+                    return;
+                }
+                manager.addLine(hologram, "New Hologram: " + name);
+                manager.addLine(hologram, "Use /holo edit " + name);
+                manager.setLineSpacing(hologram, config.defaultLineSpacing);
                 manager.spawnHologram(hologram);
                 manager.save();
 
@@ -125,6 +163,13 @@ public final class HologramCommand extends AbstractCommand {
         }
     }
 
+    private static String quotaMessage(HologramManager manager, String worldId, UUID creatorId) {
+        if (manager.getMaxPerCreator() > 0 && manager.countByCreator(creatorId) >= manager.getMaxPerCreator()) {
+            return "You have reached the limit of " + manager.getMaxPerCreator() + " holograms.";
+        }
+        return "World '" + worldId + "' has reached the limit of " + manager.getMaxPerWorld() + " holograms.";
+    }
+
     static final class DeleteSubCommand extends AbstractCommand {
         private final AdminToolsPlugin plugin;
 
@@ -148,8 +193,49 @@ public final class HologramCommand extends AbstractCommand {
                 manager.save();
                 context.sendMessage(Message.raw("Hologram '" + name + "' deleted."));
             } else {
-                context.sendMessage(Message.raw("Hologram '" + name + "' not found."));
+                context.sendMessage(Message.raw("Hologram '" + name + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestNames(name, CommandInputUtil.SUGGESTION_LIMIT))));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    static final class PurgeSubCommand extends AbstractCommand {
+        private final AdminToolsPlugin plugin;
+
+        PurgeSubCommand(AdminToolsPlugin plugin) {
+            super("purge", "Delete every hologram made by a player.");
+            this.plugin = plugin;
+            setAllowsExtraArguments(true);
+        }
+
+        @Override
+        protected CompletableFuture<Void> execute(CommandContext context) {
+            String[] args = CommandInputUtil.extractArgs(context, this);
+            if (args.length < 1) {
+                context.sendMessage(Message.raw("Usage: /holo purge <player|uuid|me> [confirm]"));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            UUID creatorId = resolvePlayerId(context, context.senderAs(Player.class), args[0]);
+            if (creatorId == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            HologramManager manager = plugin.getHologramManager();
+            int owned = manager.countByCreator(creatorId);
+            if (owned == 0) {
+                context.sendMessage(Message.raw(args[0] + " has no holograms."));
+                return CompletableFuture.completedFuture(null);
+            }
+            if (args.length < 2 || !args[1].equalsIgnoreCase("confirm")) {
+                context.sendMessage(Message.raw("This deletes " + owned + " hologram(s) made by " + args[0]
+                    + ". Run /holo purge " + args[0] + " confirm to continue."));
+                return CompletableFuture.completedFuture(null);
             }
+
+            int deleted = manager.deleteHologramsByCreator(creatorId);
+            manager.save();
+            context.sendMessage(Message.raw("Deleted " + deleted + " hologram(s) made by " + args[0] + "."));
             return CompletableFuture.completedFuture(null);
         }
     }
@@ -181,7 +267,8 @@ public final class HologramCommand extends AbstractCommand {
             HologramManager manager = plugin.getHologramManager();
             HologramData hologram = manager.getHologram(name);
             if (hologram == null) {
-                context.sendMessage(Message.raw("Hologram '" + name + "' not found."));
+                context.sendMessage(Message.raw("Hologram '" + name + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestNames(name, CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -207,35 +294,254 @@ public final class HologramCommand extends AbstractCommand {
     }
 
     static final class ListSubCommand extends AbstractCommand {
+        private static final String USAGE =
+            "Usage: /holo list [mine] [page] [world:<name>] [creator:<player|uuid|me>] [radius:<blocks>] [prefix:<text>] [sort:name|-name|distance]";
         private final AdminToolsPlugin plugin;
+        private final AdminToolsConfig.HologramCommands config;
 
-        ListSubCommand(AdminToolsPlugin plugin) {
-            super("list", "List all holograms.");
+        ListSubCommand(AdminToolsPlugin plugin, AdminToolsConfig.HologramCommands config) {
+            super("list", "List holograms.");
             this.plugin = plugin;
+            this.config = config;
+            setAllowsExtraArguments(true);
         }
 
         @Override
         protected CompletableFuture<Void> execute(CommandContext context) {
+            String[] args = CommandInputUtil.extractArgs(context, this);
+            int page = 1;
+            String worldId = null;
+            String creator = null;
+            String prefix = null;
+            String sort = "name";
+            double radius = 0;
+            for (String arg : args) {
+                int colon = arg.indexOf(':');
+                String key = colon < 0 ? "" : arg.substring(0, colon).toLowerCase(Locale.ROOT);
+                String value = colon < 0 ? arg : arg.substring(colon + 1);
+                try {
+                    switch (key) {
+                        case "" -> {
+                            if (value.equalsIgnoreCase("mine")) {
+                                creator = "me";
+                            } else {
+                                page = Integer.parseInt(value);
+                            }
+                        }
+                        case "world" -> worldId = value;
+                        case "creator" -> creator = value;
+                        case "prefix" -> prefix = value;
+                        case "sort" -> sort = value.toLowerCase(Locale.ROOT);
+                        case "radius" -> radius = Double.parseDouble(value);
+                        default -> {
+                            context.sendMessage(Message.raw(USAGE));
+                            return CompletableFuture.completedFuture(null);
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    context.sendMessage(Message.raw("Invalid number: " + value));
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+            if (!sort.equals("name") && !sort.equals("-name") && !sort.equals("distance")) {
+                context.sendMessage(Message.raw(USAGE));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            Player senderEntity = context.senderAs(Player.class);
+            UUID creatorId = null;
+            if (creator != null) {
+                creatorId = resolvePlayerId(context, senderEntity, creator);
+                if (creatorId == null) {
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+
             HologramManager manager = plugin.getHologramManager();
-            Collection<HologramData> all = manager.getAllHolograms();
-            if (all.isEmpty()) {
-                context.sendMessage(Message.raw("No holograms found."));
+            int pageSize = Math.max(1, config.pageSize);
+            int offset = (int) Math.min(Integer.MAX_VALUE, (long) (Math.max(1, page) - 1) * pageSize);
+            int shownPage = Math.max(1, page);
+            UUID creatorFilter = creatorId;
+            String namePrefix = prefix;
+            if (radius <= 0 && !sort.equals("distance")) {
+                HologramManager.Page result = manager.listByName(worldId, creatorFilter, namePrefix, sort.equals("-name"), null, offset, pageSize);
+                sendPage(context::sendMessage, result, shownPage, args, null);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            // Radius and distance order are measured from the sender, in the sender's world.
+            if (senderEntity == null) {
+                context.sendMessage(Message.raw("radius: and sort:distance can only be used by a player."));
+                return CompletableFuture.completedFuture(null);
+            }
+            World world = senderEntity.getWorld();
+            if (world == null) {
+                context.sendMessage(Message.raw("Player is not in a world."));
+                return CompletableFuture.completedFuture(null);
+            }
+            if (worldId != null && !worldId.equals(world.getName())) {
+                context.sendMessage(Message.raw("radius: and sort:distance only work in your current world."));
+                return CompletableFuture.completedFuture(null);
+            }
+            double range = radius;
+            boolean byDistance = sort.equals("distance");
+            boolean descending = sort.equals("-name");
+            world.execute(() -> {
+                PlayerRef playerRef = senderEntity.getPlayerRef();
+                Ref<EntityStore> playerEntityRef = playerRef.getReference();
+                Store<EntityStore> store = playerEntityRef.getStore();
+                TransformComponent transform = store.getComponent(playerEntityRef, TransformComponent.getComponentType());
+                if (transform == null || transform.getPosition() == null) {
+                    senderEntity.sendMessage(Message.raw("Cannot read position."));
+                    return;
+                }
+                Vector3d position = transform.getPosition();
+                double x = position.getX();
+                double y = position.getY();
+                double z = position.getZ();
+                HologramManager.Page result;
+                if (byDistance) {
+                    Predicate<HologramData> filter = creatorFilter == null ? null : h -> creatorFilter.equals(h.getCreatorId());
+                    result = manager.listByDistance(world.getName(), x, y, z, range, namePrefix, filter, offset, pageSize);
+                } else {
+                    result = manager.listInRadius(world.getName(), x, y, z, range, creatorFilter, namePrefix, descending, offset, pageSize);
+                }
+                sendPage(senderEntity::sendMessage, result, shownPage, args, position);
+            });
+            return CompletableFuture.completedFuture(null);
+        }
+
+        private void sendPage(Consumer<Message> reply, HologramManager.Page result, int page, String[] args, Vector3d origin) {
+            if (result.holograms().isEmpty()) {
+                reply.accept(Message.raw(page > 1 ? "Page " + page + " is past the end." : "No holograms found."));
+                return;
+            }
+            StringBuilder sb = new StringBuilder("Holograms, page ").append(page).append(":\n");
+            int shown = 0;
+            for (HologramData h : result.holograms()) {
+                StringBuilder line = new StringBuilder("  - ").append(h.getName())
+                    .append(" at (")
+                    .append(String.format("%.1f", h.getPosX())).append(", ")
+                    .append(String.format("%.1f", h.getPosY())).append(", ")
+                    .append(String.format("%.1f", h.getPosZ())).append(")")
+                    .append(" [").append(h.getLines().size()).append(" lines]");
+                if (origin != null) {
+                    line.append(String.format(" %.1fm", Math.sqrt(distanceSq(h, origin.getX(), origin.getY(), origin.getZ()))));
+                }
+                if (sb.length() + line.length() + 1 > config.maxResponseChars) {
+                    break;
+                }
+                sb.append(line).append('\n');
+                shown++;
+            }
+            if (shown < result.holograms().size()) {
+                sb.append("  ... ").append(result.holograms().size() - shown).append(" more on this page not shown (MaxResponseChars).\n");
+            }
+            if (result.hasMore()) {
+                sb.append("Next: /holo list ").append(page + 1);
+                for (String arg : args) {
+                    if (arg.indexOf(':') >= 0 || arg.equalsIgnoreCase("mine")) {
+                        sb.append(' ').append(arg);
+                    }
+                }
+            }
+            reply.accept(Message.raw(sb.toString().trim()));
+        }
+
+        private static double distanceSq(HologramData h, double x, double y, double z) {
+            double dx = h.getPosX() - x;
+            double dy = h.getPosY() - y;
+            double dz = h.getPosZ() - z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    static final class SearchSubCommand extends AbstractCommand {
+        private static final int SNIPPET_CHARS = 60;
+        private final AdminToolsPlugin plugin;
+        private final AdminToolsConfig.HologramCommands config;
+
+        SearchSubCommand(AdminToolsPlugin plugin, AdminToolsConfig.HologramCommands config) {
+            super("search", "Find holograms by the text on their lines.");
+            this.plugin = plugin;
+            this.config = config;
+            setAllowsExtraArguments(true);
+        }
+
+        @Override
+        protected CompletableFuture<Void> execute(CommandContext context) {
+            String[] args = CommandInputUtil.extractArgs(context, this);
+            if (args.length < 1) {
+                context.sendMessage(Message.raw("Usage: /holo search <terms> [page]"));
                 return CompletableFuture.completedFuture(null);
             }
 
-            StringBuilder sb = new StringBuilder("Holograms (" + all.size() + "):\n");
-            for (HologramData h : all) {
-                sb.append("  - ").append(h.getName())
-                  .append(" at (")
-                  .append(String.format("%.1f", h.getPosX())).append(", ")
-                  .append(String.format("%.1f", h.getPosY())).append(", ")
-                  .append(String.format("%.1f", h.getPosZ())).append(")")
-                  .append(" [").append(h.getLines().size()).append(" lines]")
-                  .append("\n");
+            // A trailing number is the page, unless it is the only term.
+            int page = 1;
+            int termCount = args.length;
+            if (args.length > 1) {
+                try {
+                    page = Math.max(1, Integer.parseInt(args[args.length - 1]));
+                    termCount--;
+                } catch (NumberFormatException ignored) {
+                    // Part of the query.
+                }
+            }
+            String query = CommandInputUtil.join(args, 0, termCount);
+
+            int pageSize = Math.max(1, config.pageSize);
+            int offset = (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * pageSize);
+            HologramManager.Page result = plugin.getHologramManager().search(query, offset, pageSize);
+            if (result.holograms().isEmpty()) {
+                context.sendMessage(Message.raw(page > 1
+                    ? "Page " + page + " is past the end."
+                    : "No holograms mention '" + query + "'."));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            String[] terms = query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+            StringBuilder sb = new StringBuilder("Holograms mentioning '").append(query).append("', page ").append(page).append(":\n");
+            int shown = 0;
+            for (HologramData h : result.holograms()) {
+                String line = "  - " + h.getName() + " [" + h.getWorldId() + "]: " + snippet(h, terms);
+                if (sb.length() + line.length() + 1 > config.maxResponseChars) {
+                    break;
+                }
+                sb.append(line).append('\n');
+                shown++;
+            }
+            if (shown < result.holograms().size()) {
+                sb.append("  ... ").append(result.holograms().size() - shown).append(" more on this page not shown (MaxResponseChars).\n");
+            }
+            if (result.hasMore()) {
+                sb.append("Next: /holo search ").append(query).append(' ').append(page + 1);
             }
             context.sendMessage(Message.raw(sb.toString().trim()));
             return CompletableFuture.completedFuture(null);
         }
+
+        /**
+         * The first line mentioning one of the terms, shortened for chat.
+         */
+        private static String snippet(HologramData hologram, String[] terms) {
+            String match = null;
+            for (String line : hologram.getLines()) {
+                String folded = line.toLowerCase(Locale.ROOT);
+                for (String term : terms) {
+                    if (!term.isEmpty() && folded.contains(term)) {
+                        match = line;
+                        break;
+                    }
+                }
+                if (match != null) {
+                    break;
+                }
+            }
+            if (match == null) {
+                match = hologram.getLines().isEmpty() ? "" : hologram.getLines().get(0);
+            }
+            return match.length() > SNIPPET_CHARS ? match.substring(0, SNIPPET_CHARS - 3) + "..." : match;
+        }
     }
 
     static final class AddLineSubCommand extends AbstractCommand {
@@ -260,12 +566,13 @@ public final class HologramCommand extends AbstractCommand {
             HologramManager manager = plugin.getHologramManager();
             HologramData hologram = manager.getHologram(name);
             if (hologram == null) {
-                context.sendMessage(Message.raw("Hologram '" + name + "' not found."));
+                context.sendMessage(Message.raw("Hologram '" + name + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestNames(name, CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
             manager.addLine(hologram, text);
-            manager.respawnHologram(hologram);
+            manager.refreshHologram(hologram);
             manager.save();
             context.sendMessage(Message.raw("Line added to '" + name + "'."));
             return CompletableFuture.completedFuture(null);
@@ -301,7 +608,8 @@ public final class HologramCommand extends AbstractCommand {
             HologramManager manager = plugin.getHologramManager();
             HologramData hologram = manager.getHologram(name);
             if (hologram == null) {
-                context.sendMessage(Message.raw("Hologram '" + name + "' not found."));
+                context.sendMessage(Message.raw("Hologram '" + name + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestNames(name, CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -311,7 +619,7 @@ public final class HologramCommand extends AbstractCommand {
             }
 
             manager.removeLine(hologram, index);
-            manager.respawnHologram(hologram);
+            manager.refreshHologram(hologram);
             manager.save();
             context.sendMessage(Message.raw("Line " + (index + 1) + " removed from '" + name + "'."));
             return CompletableFuture.completedFuture(null);
@@ -345,7 +653,8 @@ public final class HologramCommand extends AbstractCommand {
             HologramManager manager = plugin.getHologramManager();
             HologramData hologram = manager.getHologram(name);
             if (hologram == null) {
-                context.sendMessage(Message.raw("Hologram '" + name + "' not found."));
+                context.sendMessage(Message.raw("Hologram '" + name + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestNames(name, CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -372,4 +681,47 @@ public final class HologramCommand extends AbstractCommand {
             return CompletableFuture.completedFuture(null);
         }
     }
+
+    static final class ExportSubCommand extends AbstractCommand {
+        private final AdminToolsPlugin plugin;
+
+        ExportSubCommand(AdminToolsPlugin plugin) {
+            super("export", "Export all holograms to JSON for editing.");
+            this.plugin = plugin;
+        }
+
+        @Override
+        protected CompletableFuture<Void> execute(CommandContext context) {
+            HologramManager manager = plugin.getHologramManager();
+            if (manager.exportJson()) {
+                context.sendMessage(Message.raw("Exported " + manager.getAllHolograms().size()
+                    + " holograms to " + manager.getExportFile().getFileName() + "."));
+            } else {
+                context.sendMessage(Message.raw("Failed to export holograms. See the server log."));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    static final class ImportSubCommand extends AbstractCommand {
+        private final AdminToolsPlugin plugin;
+
+        ImportSubCommand(AdminToolsPlugin plugin) {
+            super("import", "Replace all holograms with the exported JSON file.");
+            this.plugin = plugin;
+        }
+
+        @Override
+        protected CompletableFuture<Void> execute(CommandContext context) {
+            HologramManager manager = plugin.getHologramManager();
+            if (manager.importJson()) {
+                context.sendMessage(Message.raw("Imported " + manager.getAllHolograms().size()
+                    + " holograms from " + manager.getExportFile().getFileName() + "."));
+            } else {
+                context.sendMessage(Message.raw("Failed to import holograms from "
+                    + manager.getExportFile().getFileName() + ". See the server log."));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 }
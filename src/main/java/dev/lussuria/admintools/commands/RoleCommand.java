@@ -9,11 +9,9 @@ import dev.lussuria.admintools.role.ChatRole;
 import dev.lussuria.admintools.role.RoleManager;
 import dev.lussuria.admintools.util.CommandInputUtil;
 import dev.lussuria.admintools.util.MessageUtil;
+import dev.lussuria.admintools.util.OnlinePlayers;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
@@ -37,7 +35,7 @@ public final class RoleCommand extends AbstractCommand {
 
         addSubCommand(new CreateSubCommand(plugin));
         addSubCommand(new DeleteSubCommand(plugin));
-        addSubCommand(new ListSubCommand(plugin));
+        addSubCommand(new ListSubCommand(plugin, config));
         addSubCommand(new InfoSubCommand(plugin));
         addSubCommand(new SetColorSubCommand(plugin));
         addSubCommand(new SetPrefixSubCommand(plugin));
@@ -49,12 +47,15 @@ public final class RoleCommand extends AbstractCommand {
         addSubCommand(new AssignSubCommand(plugin));
         addSubCommand(new UnassignSubCommand(plugin));
         addSubCommand(new AssignedSubCommand(plugin));
+        addSubCommand(new MembersSubCommand(plugin, config));
+        addSubCommand(new ExportSubCommand(plugin));
+        addSubCommand(new ImportSubCommand(plugin));
     }
 
     @Override
     protected CompletableFuture<Void> execute(CommandContext context) {
         context.sendMessage(Message.raw(
-            "Usage: /role <create|delete|list|info|setcolor|setprefix|addgroup|removegroup|setpriority|setbold|setitalic|assign|unassign|assigned>"
+            "Usage: /role <create|delete|list|info|setcolor|setprefix|addgroup|removegroup|setpriority|setbold|setitalic|assign|unassign|assigned|members|export|import>"
         ));
         return CompletableFuture.completedFuture(null);
     }
@@ -170,7 +171,8 @@ public final class RoleCommand extends AbstractCommand {
                 manager.save();
                 context.sendMessage(Message.raw("Role '" + args[0] + "' deleted."));
             } else {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
             }
             return CompletableFuture.completedFuture(null);
         }
@@ -178,32 +180,67 @@ public final class RoleCommand extends AbstractCommand {
 
     static final class ListSubCommand extends AbstractCommand {
         private final AdminToolsPlugin plugin;
+        private final AdminToolsConfig.RoleCommands config;
 
-        ListSubCommand(AdminToolsPlugin plugin) {
-            super("list", "List all chat roles.");
+        ListSubCommand(AdminToolsPlugin plugin, AdminToolsConfig.RoleCommands config) {
+            super("list", "List chat roles.");
             this.plugin = plugin;
+            this.config = config;
+            setAllowsExtraArguments(true);
         }
 
         @Override
         protected CompletableFuture<Void> execute(CommandContext context) {
-            RoleManager manager = plugin.getRoleManager();
-            Collection<ChatRole> all = manager.getAllRoles();
-            if (all.isEmpty()) {
+            String[] args = CommandInputUtil.extractArgs(context, this);
+            int page = 1;
+            if (args.length > 0) {
+                try {
+                    page = Integer.parseInt(args[0]);
+                } catch (NumberFormatException e) {
+                    context.sendMessage(Message.raw("Invalid page number: " + args[0]));
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+
+            List<ChatRole> sorted = plugin.getRoleManager().getRolesByPriority();
+            if (sorted.isEmpty()) {
                 context.sendMessage(Message.raw("No roles defined."));
                 return CompletableFuture.completedFuture(null);
             }
+            page = Math.max(1, page);
+            int pageSize = Math.max(1, config.pageSize);
+            int pages = (sorted.size() + pageSize - 1) / pageSize;
+            if (page > pages) {
+                context.sendMessage(Message.raw("Page " + page + " is past the end; there are " + pages + " page(s)."));
+                return CompletableFuture.completedFuture(null);
+            }
 
-            List<ChatRole> sorted = new ArrayList<>(all);
-            sorted.sort(Comparator.comparingInt(ChatRole::getPriority));
-
-            Message result = Message.raw("Roles (" + sorted.size() + "):\n");
-            for (ChatRole role : sorted) {
-                Message preview = MessageUtil.buildRolePreview(role);
-                result.insert(Message.raw("  - " + role.getName() + ": "));
-                result.insert(preview);
-                result.insert(Message.raw(" " + role.getColor()
+            int from = (page - 1) * pageSize;
+            int to = Math.min(sorted.size(), from + pageSize);
+            String header = "Roles (" + sorted.size() + "), page " + page + "/" + pages + ":\n";
+            Message result = Message.raw(header);
+            int length = header.length();
+            int shown = 0;
+            for (ChatRole role : sorted.subList(from, to)) {
+                String label = "  - " + role.getName() + ": ";
+                String details = " " + role.getColor()
                     + " priority=" + role.getPriority()
-                    + " groups=" + role.getGroups() + "\n"));
+                    + " groups=" + role.getGroups() + "\n";
+                int entryLength = label.length() + String.valueOf(role.getDisplayName()).length() + details.length();
+                if (length + entryLength > config.maxResponseChars) {
+                    break;
+                }
+                result.insert(Message.raw(label));
+                result.insert(MessageUtil.buildRolePreview(role));
+                result.insert(Message.raw(details));
+                length += entryLength;
+                shown++;
+            }
+            if (shown < to - from) {
+                result.insert(Message.raw("  ... " + (to - from - shown) + " more on this page not shown (MaxResponseChars).\n"));
+            }
+            if (page < pages) {
+                result.insert(Message.raw("Next: /role list " + (page + 1)));
             }
             context.sendMessage(result);
             return CompletableFuture.completedFuture(null);
@@ -230,7 +267,8 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -267,7 +305,8 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -277,7 +316,12 @@ public final class RoleCommand extends AbstractCommand {
                 return CompletableFuture.completedFuture(null);
             }
 
-            role.setColor(color);
+            ChatRole edited = role.copy();
+            edited.setColor(color);
+            if (!manager.updateRole(edited)) {
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                return CompletableFuture.completedFuture(null);
+            }
             manager.save();
             context.sendMessage(Message.raw("Role '" + args[0] + "' color set to " + color + "."));
             return CompletableFuture.completedFuture(null);
@@ -304,12 +348,18 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
             String displayName = CommandInputUtil.join(args, 1).trim();
-            role.setDisplayName(displayName);
+            ChatRole edited = role.copy();
+            edited.setDisplayName(displayName);
+            if (!manager.updateRole(edited)) {
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                return CompletableFuture.completedFuture(null);
+            }
             manager.save();
             context.sendMessage(Message.raw("Role '" + args[0] + "' prefix set to " + displayName + "."));
             return CompletableFuture.completedFuture(null);
@@ -336,7 +386,8 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -348,7 +399,12 @@ public final class RoleCommand extends AbstractCommand {
                 }
             }
 
-            role.getGroups().add(group);
+            ChatRole edited = role.copy();
+            edited.getGroups().add(group);
+            if (!manager.updateRole(edited)) {
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                return CompletableFuture.completedFuture(null);
+            }
             manager.save();
             context.sendMessage(Message.raw("Group '" + group + "' added to role '" + args[0] + "'."));
             return CompletableFuture.completedFuture(null);
@@ -375,17 +431,20 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
             String group = args[1];
-            boolean removed = role.getGroups().removeIf(g -> g.equalsIgnoreCase(group));
-            if (removed) {
+            ChatRole edited = role.copy();
+            if (!edited.getGroups().removeIf(g -> g.equalsIgnoreCase(group))) {
+                context.sendMessage(Message.raw("Group '" + group + "' not found in role '" + args[0] + "'."));
+            } else if (manager.updateRole(edited)) {
                 manager.save();
                 context.sendMessage(Message.raw("Group '" + group + "' removed from role '" + args[0] + "'."));
             } else {
-                context.sendMessage(Message.raw("Group '" + group + "' not found in role '" + args[0] + "'."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
             }
             return CompletableFuture.completedFuture(null);
         }
@@ -411,7 +470,8 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -423,7 +483,12 @@ public final class RoleCommand extends AbstractCommand {
                 return CompletableFuture.completedFuture(null);
             }
 
-            role.setPriority(priority);
+            ChatRole edited = role.copy();
+            edited.setPriority(priority);
+            if (!manager.updateRole(edited)) {
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                return CompletableFuture.completedFuture(null);
+            }
             manager.save();
             context.sendMessage(Message.raw("Role '" + args[0] + "' priority set to " + priority + "."));
             return CompletableFuture.completedFuture(null);
@@ -450,12 +515,18 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
             boolean bold = Boolean.parseBoolean(args[1]);
-            role.setBold(bold);
+            ChatRole edited = role.copy();
+            edited.setBold(bold);
+            if (!manager.updateRole(edited)) {
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                return CompletableFuture.completedFuture(null);
+            }
             manager.save();
             context.sendMessage(Message.raw("Role '" + args[0] + "' bold set to " + bold + "."));
             return CompletableFuture.completedFuture(null);
@@ -482,12 +553,18 @@ public final class RoleCommand extends AbstractCommand {
             RoleManager manager = plugin.getRoleManager();
             ChatRole role = manager.getRole(args[0]);
             if (role == null) {
-                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
             boolean italic = Boolean.parseBoolean(args[1]);
-            role.setItalic(italic);
+            ChatRole edited = role.copy();
+            edited.setItalic(italic);
+            if (!manager.updateRole(edited)) {
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."));
+                return CompletableFuture.completedFuture(null);
+            }
             manager.save();
             context.sendMessage(Message.raw("Role '" + args[0] + "' italic set to " + italic + "."));
             return CompletableFuture.completedFuture(null);
@@ -513,13 +590,15 @@ public final class RoleCommand extends AbstractCommand {
 
             UUID playerUuid = resolvePlayerUuid(args[0]);
             if (playerUuid == null) {
-                context.sendMessage(Message.raw("Player '" + args[0] + "' not found online. Use UUID for offline player."));
+                context.sendMessage(Message.raw("Player '" + args[0] + "' not found online. Use UUID for offline player."
+                    + CommandInputUtil.didYouMean(OnlinePlayers.suggestNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
             RoleManager manager = plugin.getRoleManager();
             if (!manager.assignRole(playerUuid, args[1])) {
-                context.sendMessage(Message.raw("Role '" + args[1] + "' not found."));
+                context.sendMessage(Message.raw("Role '" + args[1] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[1], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -549,7 +628,8 @@ public final class RoleCommand extends AbstractCommand {
 
             UUID playerUuid = resolvePlayerUuid(args[0]);
             if (playerUuid == null) {
-                context.sendMessage(Message.raw("Player '" + args[0] + "' not found online. Use UUID for offline player."));
+                context.sendMessage(Message.raw("Player '" + args[0] + "' not found online. Use UUID for offline player."
+                    + CommandInputUtil.didYouMean(OnlinePlayers.suggestNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -585,7 +665,8 @@ public final class RoleCommand extends AbstractCommand {
 
             UUID playerUuid = resolvePlayerUuid(args[0]);
             if (playerUuid == null) {
-                context.sendMessage(Message.raw("Player '" + args[0] + "' not found online. Use UUID for offline player."));
+                context.sendMessage(Message.raw("Player '" + args[0] + "' not found online. Use UUID for offline player."
+                    + CommandInputUtil.didYouMean(OnlinePlayers.suggestNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
                 return CompletableFuture.completedFuture(null);
             }
 
@@ -604,4 +685,120 @@ public final class RoleCommand extends AbstractCommand {
             return CompletableFuture.completedFuture(null);
         }
     }
+
+    static final class MembersSubCommand extends AbstractCommand {
+        private final AdminToolsPlugin plugin;
+        private final AdminToolsConfig.RoleCommands config;
+
+        MembersSubCommand(AdminToolsPlugin plugin, AdminToolsConfig.RoleCommands config) {
+            super("members", "List players assigned to a role.");
+            this.plugin = plugin;
+            this.config = config;
+            setAllowsExtraArguments(true);
+        }
+
+        @Override
+        protected CompletableFuture<Void> execute(CommandContext context) {
+            String[] args = CommandInputUtil.extractArgs(context, this);
+            if (args.length < 1) {
+                context.sendMessage(Message.raw("Usage: /role members <role> [page]"));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            int page = 1;
+            if (args.length > 1) {
+                try {
+                    page = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    context.sendMessage(Message.raw("Invalid page number: " + args[1]));
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+
+            RoleManager manager = plugin.getRoleManager();
+            ChatRole role = manager.getRole(args[0]);
+            if (role == null) {
+                context.sendMessage(Message.raw("Role '" + args[0] + "' not found."
+                    + CommandInputUtil.didYouMean(manager.suggestRoleNames(args[0], CommandInputUtil.SUGGESTION_LIMIT))));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            page = Math.max(1, page);
+            int pageSize = Math.max(1, config.pageSize);
+            RoleManager.MemberPage members = manager.getMembers(role.getName(), (page - 1) * pageSize, pageSize);
+            int total = members == null ? 0 : members.total();
+            if (total == 0) {
+                context.sendMessage(Message.raw("No players are assigned to " + role.getName() + "."));
+                return CompletableFuture.completedFuture(null);
+            }
+            int pages = (total + pageSize - 1) / pageSize;
+            if (page > pages) {
+                context.sendMessage(Message.raw("Page " + page + " is past the end; " + role.getName() + " has " + pages + " page(s)."));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            StringBuilder sb = new StringBuilder("Members of " + role.getName() + " (" + total + "), page " + page + "/" + pages + ":\n");
+            int shown = 0;
+            for (UUID member : members.players()) {
+                String name = resolvePlayerName(member, null);
+                String line = " - " + (name == null ? member.toString() : name + " (" + member + ")");
+                if (sb.length() + line.length() + 1 > config.maxResponseChars) {
+                    break;
+                }
+                sb.append(line).append('\n');
+                shown++;
+            }
+            if (shown < members.players().size()) {
+                sb.append("  ... ").append(members.players().size() - shown).append(" more on this page not shown (MaxResponseChars).\n");
+            }
+            if (page < pages) {
+                sb.append("Next: /role members ").append(role.getName()).append(' ').append(page + 1);
+            }
+            context.sendMessage(Message.raw(sb.toString().trim()));
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    static final class ExportSubCommand extends AbstractCommand {
+        private final AdminToolsPlugin plugin;
+
+        ExportSubCommand(AdminToolsPlugin plugin) {
+            super("export", "Export all roles and assignments to JSON for editing.");
+            this.plugin = plugin;
+        }
+
+        @Override
+        protected CompletableFuture<Void> execute(CommandContext context) {
+            RoleManager manager = plugin.getRoleManager();
+            if (manager.exportJson()) {
+                context.sendMessage(Message.raw("Exported " + manager.getAllRoles().size()
+                    + " roles to " + manager.getExportFile().getFileName() + "."));
+            } else {
+                context.sendMessage(Message.raw("Failed to export roles. See the server log."));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    static final class ImportSubCommand extends AbstractCommand {
+        private final AdminToolsPlugin plugin;
+
+        ImportSubCommand(AdminToolsPlugin plugin) {
+            super("import", "Replace all roles and assignments with the exported JSON file.");
+            this.plugin = plugin;
+        }
+
+        @Override
+        protected CompletableFuture<Void> execute(CommandContext context) {
+            RoleManager manager = plugin.getRoleManager();
+            if (manager.importJson()) {
+                context.sendMessage(Message.raw("Imported " + manager.getAllRoles().size()
+                    + " roles from " + manager.getExportFile().getFileName() + "."));
+            } else {
+                context.sendMessage(Message.raw("Failed to import roles from "
+                    + manager.getExportFile().getFileName() + ". See the server log."));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 }
@@ -16,9 +16,8 @@ import dev.lussuria.admintools.AdminToolsPlugin;
 import dev.lussuria.admintools.config.AdminToolsConfig;
 import dev.lussuria.admintools.util.CommandInputUtil;
 import dev.lussuria.admintools.util.MessageUtil;
+import dev.lussuria.admintools.util.Placeholders;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 public final class ShowHologramCommand extends AbstractCommand {
@@ -98,9 +97,10 @@ public final class ShowHologramCommand extends AbstractCommand {
 
             String targetName = targetPlayer.getUsername();
 
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("sender", senderName);
-            placeholders.put("player", targetName);
+            Placeholders placeholders = Placeholders.create()
+                .with("sender", senderName)
+                .with("player", targetName)
+                .lazy("world", world::getName);
 
             String customText = CommandInputUtil.join(args, textStartIndex).trim();
             String template = customText.isBlank() ? config.text : customText;
@@ -13,9 +13,8 @@ import com.hypixel.hytale.server.core.util.EventTitleUtil;
 import dev.lussuria.admintools.config.AdminToolsConfig;
 import dev.lussuria.admintools.util.CommandInputUtil;
 import dev.lussuria.admintools.util.MessageUtil;
+import dev.lussuria.admintools.util.Placeholders;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 public final class ShowTitleCommand extends AbstractCommand {
@@ -81,9 +80,10 @@ public final class ShowTitleCommand extends AbstractCommand {
 
             String targetName = targetPlayer.getUsername();
 
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("sender", senderName);
-            placeholders.put("player", targetName);
+            Placeholders placeholders = Placeholders.create()
+                .with("sender", senderName)
+                .with("player", targetName)
+                .lazy("world", world::getName);
 
             String zone = config.zone;
             if (zone == null || zone.isBlank() || "default".equalsIgnoreCase(zone)) {
@@ -12,6 +12,7 @@ public final class AdminToolsConfig {
         .addField(new KeyedCodec<>("CustomItem", CustomItem.CODEC), (c, v) -> c.customItem = v, c -> c.customItem)
         .addField(new KeyedCodec<>("Hologram", Hologram.CODEC), (c, v) -> c.hologram = v, c -> c.hologram)
         .addField(new KeyedCodec<>("Ui", Ui.CODEC), (c, v) -> c.ui = v, c -> c.ui)
+        .addField(new KeyedCodec<>("Storage", Storage.CODEC), (c, v) -> c.storage = v, c -> c.storage)
         .build();
 
     public Commands commands = new Commands();
@@ -20,6 +21,7 @@ public final class AdminToolsConfig {
     public CustomItem customItem = new CustomItem();
     public Hologram hologram = new Hologram();
     public Ui ui = new Ui();
+    public Storage storage = new Storage();
 
     public static final class Commands {
         public static final BuilderCodec<Commands> CODEC = BuilderCodec.builder(Commands.class, Commands::new)
@@ -162,6 +164,8 @@ public final class AdminToolsConfig {
             .addField(new KeyedCodec<>("Aliases", Codec.STRING_ARRAY), (c, v) -> c.aliases = v, c -> c.aliases)
             .addField(new KeyedCodec<>("Description", Codec.STRING), (c, v) -> c.description = v, c -> c.description)
             .addField(new KeyedCodec<>("Permission", Codec.STRING), (c, v) -> c.permission = v, c -> c.permission)
+            .addField(new KeyedCodec<>("PageSize", Codec.INTEGER), (c, v) -> c.pageSize = v, c -> c.pageSize)
+            .addField(new KeyedCodec<>("MaxResponseChars", Codec.INTEGER), (c, v) -> c.maxResponseChars = v, c -> c.maxResponseChars)
             .build();
 
         public boolean enabled = true;
@@ -169,6 +173,8 @@ public final class AdminToolsConfig {
         public String[] aliases = new String[] { "chatrole" };
         public String description = "Manage chat roles.";
         public String permission = "admintools.command.role";
+        public int pageSize = 10;
+        public int maxResponseChars = 4000;
     }
 
     public static final class HologramCommands {
@@ -180,6 +186,14 @@ public final class AdminToolsConfig {
             .addField(new KeyedCodec<>("Permission", Codec.STRING), (c, v) -> c.permission = v, c -> c.permission)
             .addField(new KeyedCodec<>("DefaultLineSpacing", Codec.FLOAT), (c, v) -> c.defaultLineSpacing = v, c -> c.defaultLineSpacing)
             .addField(new KeyedCodec<>("DefaultScale", Codec.FLOAT), (c, v) -> c.defaultScale = v, c -> c.defaultScale)
+            .addField(new KeyedCodec<>("StreamingEnabled", Codec.BOOLEAN), (c, v) -> c.streamingEnabled = v, c -> c.streamingEnabled)
+            .addField(new KeyedCodec<>("ViewRadius", Codec.FLOAT), (c, v) -> c.viewRadius = v, c -> c.viewRadius)
+            .addField(new KeyedCodec<>("DespawnRadius", Codec.FLOAT), (c, v) -> c.despawnRadius = v, c -> c.despawnRadius)
+            .addField(new KeyedCodec<>("StreamIntervalMillis", Codec.INTEGER), (c, v) -> c.streamIntervalMillis = v, c -> c.streamIntervalMillis)
+            .addField(new KeyedCodec<>("PageSize", Codec.INTEGER), (c, v) -> c.pageSize = v, c -> c.pageSize)
+            .addField(new KeyedCodec<>("MaxResponseChars", Codec.INTEGER), (c, v) -> c.maxResponseChars = v, c -> c.maxResponseChars)
+            .addField(new KeyedCodec<>("MaxPerCreator", Codec.INTEGER), (c, v) -> c.maxPerCreator = v, c -> c.maxPerCreator)
+            .addField(new KeyedCodec<>("MaxPerWorld", Codec.INTEGER), (c, v) -> c.maxPerWorld = v, c -> c.maxPerWorld)
             .build();
 
         public boolean enabled = true;
@@ -189,6 +203,14 @@ public final class AdminToolsConfig {
         public String permission = "admintools.command.holo";
         public float defaultLineSpacing = 0.25f;
         public float defaultScale = 1.0f;
+        public boolean streamingEnabled = false;
+        public float viewRadius = 48.0f;
+        public float despawnRadius = 64.0f;
+        public int streamIntervalMillis = 1000;
+        public int pageSize = 10;
+        public int maxResponseChars = 4000;
+        public int maxPerCreator = 0;
+        public int maxPerWorld = 0;
     }
 
     public static final class Chat {
@@ -314,5 +336,21 @@ public final class AdminToolsConfig {
         public String body = "Custom UI loaded from the plugin asset pack.";
         public boolean parseMessages = true;
     }
+
+    public static final class Storage {
+        public static final BuilderCodec<Storage> CODEC = BuilderCodec.builder(Storage.class, Storage::new)
+            .addField(new KeyedCodec<>("SaveDelayMillis", Codec.INTEGER), (c, v) -> c.saveDelayMillis = v, c -> c.saveDelayMillis)
+            .addField(new KeyedCodec<>("JournalEnabled", Codec.BOOLEAN), (c, v) -> c.journalEnabled = v, c -> c.journalEnabled)
+            .addField(new KeyedCodec<>("JournalCompactThreshold", Codec.INTEGER), (c, v) -> c.journalCompactThreshold = v, c -> c.journalCompactThreshold)
+            .addField(new KeyedCodec<>("Format", Codec.STRING), (c, v) -> c.format = v, c -> c.format)
+            .addField(new KeyedCodec<>("Compress", Codec.BOOLEAN), (c, v) -> c.compress = v, c -> c.compress)
+            .build();
+
+        public int saveDelayMillis = 2000;
+        public boolean journalEnabled = true;
+        public int journalCompactThreshold = 500;
+        public String format = "json";
+        public boolean compress = true;
+    }
 }
 
@@ -6,8 +6,16 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class HologramData {
+    static final int SYNC_LINES = 1;
+    static final int SYNC_POSITION = 1 << 1;
+    static final int SYNC_RESPAWN = 1 << 2;
+    private static final int SYNC_QUEUED = 1 << 31;
+
     private UUID id;
     private String name;
     private double posX;
@@ -19,12 +27,16 @@ public final class HologramData {
     private double lineSpacing;
 
     private transient final List<Ref<EntityStore>> lineEntityRefs = new ArrayList<>();
+    private transient final List<String> spawnedLineTexts = new ArrayList<>();
     private transient boolean spawned;
+    private transient final AtomicLong version = new AtomicLong();
+    private transient final AtomicInteger pendingSync = new AtomicInteger();
+    private transient volatile long syncedVersion = -1;
 
     public HologramData() {
         this.id = UUID.randomUUID();
         this.name = "";
-        this.lines = new ArrayList<>();
+        this.lines = new CopyOnWriteArrayList<>();
         this.lineSpacing = 0.25;
     }
 
@@ -35,7 +47,7 @@ public final class HologramData {
         this.posY = posY;
         this.posZ = posZ;
         this.worldId = worldId;
-        this.lines = new ArrayList<>();
+        this.lines = new CopyOnWriteArrayList<>();
         this.lineSpacing = 0.25;
     }
 
@@ -109,8 +121,16 @@ public final class HologramData {
         return lineEntityRefs;
     }
 
+    /**
+     * Text currently shown by each entry of {@link #getLineEntityRefs()}, index for index.
+     */
+    public List<String> getSpawnedLineTexts() {
+        return spawnedLineTexts;
+    }
+
     public void clearLineEntityRefs() {
         lineEntityRefs.clear();
+        spawnedLineTexts.clear();
     }
 
     public boolean isSpawned() {
@@ -120,4 +140,50 @@ public final class HologramData {
     public void setSpawned(boolean spawned) {
         this.spawned = spawned;
     }
+
+    /**
+     * Detached copy of the persisted fields, safe to serialize off-thread.
+     */
+    HologramData snapshotCopy() {
+        HologramData copy = new HologramData(name, posX, posY, posZ, worldId);
+        copy.setId(id);
+        copy.setCreatorId(creatorId);
+        copy.setLineSpacing(lineSpacing);
+        copy.getLines().addAll(lines);
+        return copy;
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    void bumpVersion() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Version shown by the spawned entities. Only written on the world thread.
+     */
+    long getSyncedVersion() {
+        return syncedVersion;
+    }
+
+    void setSyncedVersion(long syncedVersion) {
+        this.syncedVersion = syncedVersion;
+    }
+
+    /**
+     * Add pending changes; returns true when the caller has to queue the sync task.
+     */
+    boolean markSyncPending(int changes) {
+        int previous = pendingSync.getAndUpdate(v -> v | changes | SYNC_QUEUED);
+        return (previous & SYNC_QUEUED) == 0;
+    }
+
+    /**
+     * Clear the queued flag and return the changes collected since the last sync.
+     */
+    int takePendingSync() {
+        return pendingSync.getAndSet(0) & ~SYNC_QUEUED;
+    }
 }
@@ -4,65 +4,245 @@ import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.RemoveReason;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.math.vector.Vector3d;
-import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import dev.lussuria.admintools.config.AdminToolsConfig;
+import dev.lussuria.admintools.persistence.AtomicFiles;
+import dev.lussuria.admintools.persistence.BinarySnapshot;
+import dev.lussuria.admintools.persistence.ChangeJournal;
+import dev.lussuria.admintools.persistence.DebouncedSaver;
+import dev.lussuria.admintools.persistence.JsonReader;
+import dev.lussuria.admintools.persistence.JsonWriter;
+import dev.lussuria.admintools.util.PrefixIndex;
+import dev.lussuria.admintools.util.WorldCache;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import com.hypixel.hytale.logger.HytaleLogger;
 
 public final class HologramManager {
+    private static final String OP_PUT = "put";
+    private static final String OP_DELETE = "delete";
+    private static final String OP_ADD_LINE = "addLine";
+    private static final String OP_SET_LINE = "setLine";
+    private static final String OP_REMOVE_LINE = "removeLine";
+    private static final String OP_MOVE = "move";
+    private static final String BINARY_KIND = "holograms";
+
     private final HytaleLogger logger;
     private final Path dataFile;
     private final float defaultScale;
+    private final Path binaryFile;
+    private final Path exportFile;
+    private final boolean binary;
+    private final boolean compress;
+    private final DebouncedSaver saver;
+    private final ChangeJournal journal;
+    private final int compactThreshold;
+    private final Object stateLock = new Object();
+    // Set when the snapshot or journal could not be read completely; the files are
+    // then left alone so a restart can still recover what was not loaded.
+    private volatile boolean loadFailed;
     private final Map<UUID, HologramData> holograms = new ConcurrentHashMap<>();
-    private final Map<String, UUID> hologramsByName = new ConcurrentHashMap<>();
+    // Case-folded name -> hologram, sorted so listings can page through it in name order.
+    private final NavigableMap<String, HologramData> hologramsByName = new ConcurrentSkipListMap<>();
+    private final PrefixIndex hologramNames = new PrefixIndex();
+    private final HologramSpatialIndex spatialIndex = new HologramSpatialIndex();
+    private final HologramTextIndex textIndex = new HologramTextIndex();
+    // World -> case-folded name -> hologram, sorted like hologramsByName.
+    private final Map<String, NavigableMap<String, HologramData>> hologramsByWorld = new ConcurrentHashMap<>();
+    // Creator -> case-folded name -> hologram; holograms without a creator are not listed.
+    private final Map<UUID, NavigableMap<String, HologramData>> hologramsByCreator = new ConcurrentHashMap<>();
+    // Skip-list maps count in linear time, so quota checks read these instead.
+    private final Map<String, Integer> worldCounts = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> creatorCounts = new ConcurrentHashMap<>();
+    private final Map<String, Set<HologramData>> spawnedByWorld = new ConcurrentHashMap<>();
+    private volatile boolean streaming;
+    private volatile double viewRadius;
+    private volatile double despawnRadius;
+    private volatile int maxPerCreator;
+    private volatile int maxPerWorld;
 
-    public HologramManager(HytaleLogger logger, Path dataDirectory, float defaultScale) {
+    public HologramManager(HytaleLogger logger, Path dataDirectory, float defaultScale, AdminToolsConfig.Storage storage) {
         this.logger = logger;
         this.dataFile = dataDirectory.resolve("holograms.json");
+        this.binaryFile = dataDirectory.resolve("holograms.bin");
+        this.exportFile = dataDirectory.resolve("holograms.export.json");
+        this.binary = "binary".equalsIgnoreCase(storage.format);
+        this.compress = storage.compress;
         this.defaultScale = defaultScale;
+        this.saver = new DebouncedSaver(logger, "holograms", storage.saveDelayMillis, this::writeSnapshot);
+        this.journal = storage.journalEnabled ? new ChangeJournal(dataDirectory.resolve("holograms.journal")) : null;
+        this.compactThreshold = Math.max(1, storage.journalCompactThreshold);
+    }
+
+    /**
+     * Only spawn holograms within {@code viewRadius} of a player and despawn them once
+     * no player is within {@code despawnRadius}. The gap between both radii keeps
+     * players walking along the edge from toggling entities every update.
+     */
+    public void enableStreaming(double viewRadius, double despawnRadius) {
+        this.viewRadius = Math.max(0.0, viewRadius);
+        this.despawnRadius = Math.max(this.viewRadius, despawnRadius);
+        this.streaming = true;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Limit how many holograms one creator may own and one world may hold; 0 means
+     * no limit. Only checked by {@link #createHologram}, so loading, importing and
+     * existing holograms are never affected.
+     */
+    public void setQuotas(int maxPerCreator, int maxPerWorld) {
+        this.maxPerCreator = Math.max(0, maxPerCreator);
+        this.maxPerWorld = Math.max(0, maxPerWorld);
+    }
+
+    public int getMaxPerCreator() {
+        return maxPerCreator;
+    }
+
+    public int getMaxPerWorld() {
+        return maxPerWorld;
+    }
+
+    public int countByCreator(UUID creatorId) {
+        return creatorId == null ? 0 : creatorCounts.getOrDefault(creatorId, 0);
+    }
+
+    public int countInWorld(String worldId) {
+        return worldCounts.getOrDefault(worldKey(worldId), 0);
     }
 
     // === CRUD ===
 
+    /**
+     * @return the new hologram, or null if the creator or the world is at its quota
+     */
     public HologramData createHologram(String name, double x, double y, double z, String worldId, UUID creatorId) {
         HologramData hologram = new HologramData(name, x, y, z, worldId);
         hologram.setCreatorId(creatorId);
-        holograms.put(hologram.getId(), hologram);
-        hologramsByName.put(name.toLowerCase(Locale.ROOT), hologram.getId());
+        synchronized (stateLock) {
+            if ((maxPerCreator > 0 && countByCreator(creatorId) >= maxPerCreator)
+                || (maxPerWorld > 0 && countInWorld(worldId) >= maxPerWorld)) {
+                return null;
+            }
+            putHologram(hologram);
+            record(encodeHologram(hologram));
+        }
         return hologram;
     }
 
     public boolean deleteHologram(String name) {
-        UUID id = hologramsByName.remove(name.toLowerCase(Locale.ROOT));
-        if (id == null) {
-            return false;
-        }
-        HologramData hologram = holograms.remove(id);
-        if (hologram != null && hologram.isSpawned()) {
-            despawnHologramEntities(hologram);
+        HologramData hologram;
+        synchronized (stateLock) {
+            hologram = hologramsByName.get(fold(name));
+            if (hologram == null) {
+                return false;
+            }
+            removeHologram(hologram);
+            record(OP_DELETE, hologram.getId().toString());
         }
+        // Always dispatch: a spawn may be running on the world thread right now.
+        despawnHologram(hologram);
         return true;
     }
 
-    public HologramData getHologram(String name) {
-        UUID id = hologramsByName.get(name.toLowerCase(Locale.ROOT));
-        if (id == null) {
-            return null;
+    /**
+     * Delete every hologram made by {@code creatorId}.
+     *
+     * @return how many were deleted
+     */
+    public int deleteHologramsByCreator(UUID creatorId) {
+        NavigableMap<String, HologramData> owned = creatorId == null ? null : hologramsByCreator.get(creatorId);
+        if (owned == null) {
+            return 0;
         }
-        return holograms.get(id);
+        List<HologramData> deleted;
+        synchronized (stateLock) {
+            deleted = new ArrayList<>(owned.values());
+            for (HologramData hologram : deleted) {
+                removeHologram(hologram);
+                record(OP_DELETE, hologram.getId().toString());
+            }
+        }
+        // One world task per world rather than per hologram.
+        Map<String, List<HologramData>> byWorld = new HashMap<>();
+        for (HologramData hologram : deleted) {
+            byWorld.computeIfAbsent(worldKey(hologram.getWorldId()), k -> new ArrayList<>()).add(hologram);
+        }
+        for (List<HologramData> inWorld : byWorld.values()) {
+            World world = findWorld(inWorld.get(0).getWorldId());
+            if (world == null) {
+                inWorld.forEach(this::despawnHologramEntities);
+            } else {
+                world.execute(() -> inWorld.forEach(this::despawnHologramEntities));
+            }
+        }
+        return deleted.size();
+    }
+
+    public void setLineSpacing(HologramData hologram, double lineSpacing) {
+        synchronized (stateLock) {
+            hologram.setLineSpacing(lineSpacing);
+            record(encodeHologram(hologram));
+        }
+        if (hologram.isSpawned()) {
+            requestSync(hologram, HologramData.SYNC_POSITION);
+        }
+    }
+
+    private void putHologram(HologramData hologram) {
+        HologramData previous = holograms.put(hologram.getId(), hologram);
+        if (previous != null) {
+            if (hologramsByName.remove(fold(previous.getName()), previous)) {
+                hologramNames.remove(previous.getName());
+            }
+            unindexHologram(previous);
+            textIndex.remove(previous);
+        }
+        hologramsByName.put(fold(hologram.getName()), hologram);
+        textIndex.add(hologram);
+        hologramNames.add(hologram.getName());
+        indexHologram(hologram);
+    }
+
+    private void removeHologram(HologramData hologram) {
+        holograms.remove(hologram.getId(), hologram);
+        if (hologramsByName.remove(fold(hologram.getName()), hologram)) {
+            hologramNames.remove(hologram.getName());
+        }
+        unindexHologram(hologram);
+        textIndex.remove(hologram);
+    }
+
+    public HologramData getHologram(String name) {
+        return hologramsByName.get(fold(name));
     }
 
     public HologramData getHologram(UUID id) {
@@ -74,35 +254,261 @@ public final class HologramManager {
     }
 
     public boolean hologramExists(String name) {
-        return hologramsByName.containsKey(name.toLowerCase(Locale.ROOT));
+        return hologramsByName.containsKey(fold(name));
+    }
+
+    /**
+     * Hologram names starting with {@code prefix}, ignoring case.
+     */
+    public List<String> completeNames(String prefix, int limit) {
+        return hologramNames.complete(prefix, limit);
+    }
+
+    /**
+     * Close matches for a name that was not found.
+     */
+    public List<String> suggestNames(String name, int limit) {
+        return hologramNames.suggest(name, limit);
+    }
+
+    public Collection<HologramData> getHologramsInWorld(String worldId) {
+        NavigableMap<String, HologramData> inWorld = hologramsByWorld.get(worldKey(worldId));
+        return inWorld == null ? List.of() : Collections.unmodifiableCollection(inWorld.values());
+    }
+
+    private void indexHologram(HologramData hologram) {
+        String worldId = worldKey(hologram.getWorldId());
+        if (hologramsByWorld.computeIfAbsent(worldId, k -> new ConcurrentSkipListMap<>())
+            .put(fold(hologram.getName()), hologram) == null) {
+            worldCounts.merge(worldId, 1, Integer::sum);
+        }
+        UUID creatorId = hologram.getCreatorId();
+        if (creatorId != null && hologramsByCreator.computeIfAbsent(creatorId, k -> new ConcurrentSkipListMap<>())
+            .put(fold(hologram.getName()), hologram) == null) {
+            creatorCounts.merge(creatorId, 1, Integer::sum);
+        }
+        spatialIndex.add(hologram);
+    }
+
+    private void unindexHologram(HologramData hologram) {
+        hologramsByWorld.computeIfPresent(worldKey(hologram.getWorldId()), (worldId, byName) -> {
+            if (byName.remove(fold(hologram.getName()), hologram)) {
+                worldCounts.computeIfPresent(worldId, (k, count) -> count > 1 ? count - 1 : null);
+            }
+            return byName.isEmpty() ? null : byName;
+        });
+        if (hologram.getCreatorId() != null) {
+            hologramsByCreator.computeIfPresent(hologram.getCreatorId(), (creatorId, byName) -> {
+                if (byName.remove(fold(hologram.getName()), hologram)) {
+                    creatorCounts.computeIfPresent(creatorId, (k, count) -> count > 1 ? count - 1 : null);
+                }
+                return byName.isEmpty() ? null : byName;
+            });
+        }
+        spatialIndex.remove(hologram);
+    }
+
+    // === Spatial Queries ===
+
+    public List<HologramData> getHologramsInRadius(String worldId, double x, double y, double z, double radius) {
+        return spatialIndex.queryRadius(worldId, x, y, z, radius);
+    }
+
+    public List<HologramData> getHologramsInBox(String worldId, double minX, double minY, double minZ,
+                                                double maxX, double maxY, double maxZ) {
+        return spatialIndex.queryBox(worldId,
+            Math.min(minX, maxX), Math.min(minY, maxY), Math.min(minZ, maxZ),
+            Math.max(minX, maxX), Math.max(minY, maxY), Math.max(minZ, maxZ));
+    }
+
+    public HologramData findNearestHologram(String worldId, double x, double y, double z, double maxRadius) {
+        return spatialIndex.nearest(worldId, x, y, z, maxRadius);
+    }
+
+    // === Listing ===
+
+    public record Page(List<HologramData> holograms, boolean hasMore) {
+    }
+
+    /**
+     * One page of holograms in name order, walked straight off the sorted name
+     * index (or one world's) starting at the first name with {@code prefix}. Only
+     * the entries up to the end of the page are visited; nothing is sorted.
+     *
+     * @param worldId   only holograms in this world, or null for every world
+     * @param creatorId only holograms made by this player, or null for anyone's
+     * @param prefix    only names starting with this, ignoring case, or null
+     * @param filter    further condition such as distance, or null
+     */
+    public Page listByName(String worldId, UUID creatorId, String prefix, boolean descending,
+                           Predicate<HologramData> filter, int offset, int limit) {
+        NavigableMap<String, HologramData> range;
+        if (creatorId != null) {
+            // A creator's own index is usually far smaller than a world's; check the world per entry.
+            range = withPrefix(hologramsByCreator.get(creatorId), prefix);
+            if (worldId != null) {
+                Predicate<HologramData> inWorld = h -> worldKey(worldId).equals(worldKey(h.getWorldId()));
+                filter = filter == null ? inWorld : inWorld.and(filter);
+            }
+        } else {
+            range = nameRange(worldId, prefix);
+        }
+        if (range == null || limit <= 0) {
+            return new Page(List.of(), false);
+        }
+        List<HologramData> page = new ArrayList<>();
+        int skipped = 0;
+        for (HologramData hologram : (descending ? range.descendingMap() : range).values()) {
+            if (filter != null && !filter.test(hologram)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else if (page.size() < limit) {
+                page.add(hologram);
+            } else {
+                return new Page(page, true);
+            }
+        }
+        return new Page(page, false);
+    }
+
+    /**
+     * One page of holograms in {@code worldId}, nearest to the given point first.
+     * With a radius only the spatial index cells in range are visited. Candidates
+     * go through a bounded heap that keeps the nearest {@code offset + limit + 1},
+     * so only that many are ever sorted.
+     */
+    public Page listByDistance(String worldId, double x, double y, double z, double radius, String prefix,
+                               Predicate<HologramData> filter, int offset, int limit) {
+        if (limit <= 0) {
+            return new Page(List.of(), false);
+        }
+        Collection<HologramData> candidates;
+        if (radius > 0) {
+            candidates = spatialIndex.queryRadius(worldId, x, y, z, radius);
+        } else {
+            NavigableMap<String, HologramData> range = nameRange(worldId, prefix);
+            candidates = range == null ? List.of() : range.values();
+        }
+        Comparator<HologramData> byDistance = Comparator.comparingDouble(h -> HologramSpatialIndex.distanceSq(h, x, y, z));
+        return topPage(candidates, prefix, filter, byDistance, offset, limit);
+    }
+
+    /**
+     * One page of the holograms within {@code radius} of a point in {@code worldId},
+     * in name order. Candidates come from the spatial index cells in range rather
+     * than the world's name index, then go through the same bounded heap as
+     * {@link #listByDistance}.
+     */
+    public Page listInRadius(String worldId, double x, double y, double z, double radius, UUID creatorId,
+                             String prefix, boolean descending, int offset, int limit) {
+        if (limit <= 0) {
+            return new Page(List.of(), false);
+        }
+        Predicate<HologramData> filter = creatorId == null ? null : h -> creatorId.equals(h.getCreatorId());
+        Comparator<HologramData> byName = Comparator.comparing(h -> fold(h.getName()));
+        return topPage(spatialIndex.queryRadius(worldId, x, y, z, radius), prefix, filter,
+            descending ? byName.reversed() : byName, offset, limit);
+    }
+
+    /**
+     * Page {@code offset .. offset + limit} of the accepted candidates in {@code order},
+     * keeping only the first {@code offset + limit + 1} in a bounded heap.
+     */
+    private static Page topPage(Collection<HologramData> candidates, String prefix, Predicate<HologramData> filter,
+                                Comparator<HologramData> order, int offset, int limit) {
+        String folded = prefix == null ? "" : fold(prefix);
+        int keep = (int) Math.min(Integer.MAX_VALUE - 1, (long) offset + limit) + 1;
+        PriorityQueue<HologramData> best = new PriorityQueue<>(order.reversed());
+        for (HologramData hologram : candidates) {
+            if (!fold(hologram.getName()).startsWith(folded) || (filter != null && !filter.test(hologram))) {
+                continue;
+            }
+            best.add(hologram);
+            if (best.size() > keep) {
+                best.poll();
+            }
+        }
+        if (best.size() <= offset) {
+            return new Page(List.of(), false);
+        }
+        List<HologramData> sorted = new ArrayList<>(best);
+        sorted.sort(order);
+        int end = (int) Math.min(sorted.size(), (long) offset + limit);
+        return new Page(new ArrayList<>(sorted.subList(offset, end)), sorted.size() > end);
+    }
+
+    /**
+     * One page of holograms whose lines contain any of the words in {@code query},
+     * ranked by how many of the words match and how rare they are.
+     */
+    public Page search(String query, int offset, int limit) {
+        List<HologramTextIndex.Match> matches = textIndex.search(query, offset, limit);
+        List<HologramData> page = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            page.add(matches.get(i).hologram());
+        }
+        return new Page(page, matches.size() > limit);
+    }
+
+    private NavigableMap<String, HologramData> nameRange(String worldId, String prefix) {
+        return withPrefix(worldId == null ? hologramsByName : hologramsByWorld.get(worldKey(worldId)), prefix);
+    }
+
+    private static NavigableMap<String, HologramData> withPrefix(NavigableMap<String, HologramData> index, String prefix) {
+        if (index == null || prefix == null || prefix.isEmpty()) {
+            return index;
+        }
+        String from = fold(prefix);
+        return index.subMap(from, true, from + Character.MAX_VALUE, false);
     }
 
     // === Line Operations ===
 
     public void addLine(HologramData hologram, String text) {
-        hologram.getLines().add(text);
+        synchronized (stateLock) {
+            hologram.getLines().add(text);
+            textIndex.addLine(hologram, text);
+            record(OP_ADD_LINE, hologram.getId().toString(), text);
+        }
     }
 
     public void removeLine(HologramData hologram, int lineIndex) {
-        if (lineIndex >= 0 && lineIndex < hologram.getLines().size()) {
-            hologram.getLines().remove(lineIndex);
+        synchronized (stateLock) {
+            if (lineIndex >= 0 && lineIndex < hologram.getLines().size()) {
+                textIndex.removeLine(hologram, hologram.getLines().remove(lineIndex));
+                record(OP_REMOVE_LINE, hologram.getId().toString(), Integer.toString(lineIndex));
+            }
         }
     }
 
     public void setLine(HologramData hologram, int lineIndex, String text) {
-        if (lineIndex >= 0 && lineIndex < hologram.getLines().size()) {
-            hologram.getLines().set(lineIndex, text);
+        synchronized (stateLock) {
+            if (lineIndex >= 0 && lineIndex < hologram.getLines().size()) {
+                textIndex.removeLine(hologram, hologram.getLines().set(lineIndex, text));
+                textIndex.addLine(hologram, text);
+                record(OP_SET_LINE, hologram.getId().toString(), Integer.toString(lineIndex), text);
+            }
         }
     }
 
     // === Spawn/Despawn ===
 
+    /**
+     * Spawn the hologram's entities unless streaming, an earlier call or a sync
+     * task got there first by the time this runs on the world thread.
+     */
     public void spawnHologram(HologramData hologram) {
         World world = findWorld(hologram.getWorldId());
         if (world == null) {
             return;
         }
-        world.execute(() -> spawnHologramEntities(world, hologram));
+        world.execute(() -> {
+            if (!hologram.isSpawned() && holograms.get(hologram.getId()) == hologram) {
+                spawnHologramEntities(world, hologram);
+            }
+        });
     }
 
     public void despawnHologram(HologramData hologram) {
@@ -115,22 +521,87 @@ public final class HologramManager {
     }
 
     public void respawnHologram(HologramData hologram) {
+        requestSync(hologram, HologramData.SYNC_RESPAWN);
+    }
+
+    /**
+     * Bring spawned line entities in line with the hologram's current lines without
+     * rebuilding them: changed text is written into the existing nameplates, only
+     * inserted or removed lines spawn or remove entities, and lines that shifted
+     * index are moved. Falls back to a full respawn when a line ref is no longer valid.
+     */
+    public void refreshHologram(HologramData hologram) {
+        requestSync(hologram, HologramData.SYNC_LINES);
+    }
+
+    public void moveHologram(HologramData hologram, double x, double y, double z) {
+        synchronized (stateLock) {
+            hologram.setPosition(x, y, z);
+            spatialIndex.update(hologram);
+            record(OP_MOVE, hologram.getId().toString(), Double.toString(x), Double.toString(y), Double.toString(z));
+        }
+        requestSync(hologram, HologramData.SYNC_POSITION);
+    }
+
+    /**
+     * Record an edit and make sure one sync task is queued on the world thread.
+     * Edits arriving before that task runs only add to its pending changes, so a
+     * burst of edits costs a single reconciliation.
+     * <p>
+     * The change is marked pending before the version moves, and
+     * {@link #syncHologram} reads the version before taking the pending changes.
+     * So every version a sync task sees has its changes in that task or an
+     * earlier one, and recording it as synced can never hide an edit.
+     */
+    private void requestSync(HologramData hologram, int changes) {
+        boolean queue = hologram.markSyncPending(changes);
+        hologram.bumpVersion();
+        if (!queue) {
+            return;
+        }
         World world = findWorld(hologram.getWorldId());
         if (world == null) {
+            hologram.takePendingSync();
             return;
         }
-        world.execute(() -> {
-            despawnHologramEntities(hologram);
-            spawnHologramEntities(world, hologram);
-        });
+        world.execute(() -> syncHologram(world, hologram));
     }
 
-    public void moveHologram(HologramData hologram, double x, double y, double z) {
-        hologram.setPosition(x, y, z);
-        respawnHologram(hologram);
+    private void syncHologram(World world, HologramData hologram) {
+        long version = hologram.getVersion();
+        int changes = hologram.takePendingSync();
+        if (changes == 0 || holograms.get(hologram.getId()) != hologram) {
+            return;
+        }
+        if (version == hologram.getSyncedVersion() && (changes & HologramData.SYNC_RESPAWN) == 0) {
+            // A spawn since this task was queued already shows the latest state.
+            return;
+        }
+        if (!hologram.isSpawned()) {
+            if (!streaming) {
+                spawnHologramEntities(world, hologram);
+            }
+            return;
+        }
+        boolean updated = (changes & HologramData.SYNC_RESPAWN) == 0;
+        if (updated && (changes & HologramData.SYNC_LINES) != 0) {
+            updated = updateHologramEntities(world, hologram);
+        }
+        if (updated && (changes & HologramData.SYNC_POSITION) != 0) {
+            updated = moveHologramEntities(hologram);
+        }
+        if (!updated) {
+            despawnHologramEntities(hologram);
+            spawnHologramEntities(world, hologram);
+            return;
+        }
+        hologram.setSyncedVersion(version);
     }
 
     public void spawnAllHolograms() {
+        if (streaming) {
+            return;
+        }
         for (HologramData hologram : holograms.values()) {
             if (!hologram.isSpawned()) {
                 spawnHologram(hologram);
@@ -146,23 +617,194 @@ public final class HologramManager {
         }
     }
 
+    // === Streaming ===
+
+    /**
+     * Queue a streaming pass on every world thread. Called periodically by the plugin scheduler.
+     */
+    public void updateStreaming() {
+        if (!streaming) {
+            return;
+        }
+        try {
+            for (World world : WorldCache.worlds()) {
+                if (hologramsByWorld.containsKey(world.getName()) || spawnedByWorld.containsKey(world.getName())) {
+                    world.execute(() -> streamWorld(world));
+                }
+            }
+        } catch (Exception e) {
+            logger.at(Level.WARNING).log("Failed to update hologram streaming: %s", e.getMessage());
+        }
+    }
+
+    private void streamWorld(World world) {
+        String worldId = world.getName();
+        List<Vector3d> viewers = new ArrayList<>();
+        for (PlayerRef playerRef : world.getPlayerRefs()) {
+            Ref<EntityStore> ref = playerRef == null ? null : playerRef.getReference();
+            if (ref == null || !ref.isValid()) {
+                continue;
+            }
+            TransformComponent transform = ref.getStore().getComponent(ref, TransformComponent.getComponentType());
+            if (transform != null && transform.getPosition() != null) {
+                viewers.add(transform.getPosition());
+            }
+        }
+
+        Set<HologramData> inView = new HashSet<>();
+        for (Vector3d viewer : viewers) {
+            inView.addAll(spatialIndex.queryRadius(worldId, viewer.getX(), viewer.getY(), viewer.getZ(), viewRadius));
+        }
+        for (HologramData hologram : inView) {
+            if (!hologram.isSpawned() && holograms.get(hologram.getId()) == hologram) {
+                spawnHologramEntities(world, hologram);
+            }
+        }
+
+        Set<HologramData> spawned = spawnedByWorld.get(worldId);
+        if (spawned == null || spawned.isEmpty()) {
+            return;
+        }
+        double despawnSq = despawnRadius * despawnRadius;
+        for (HologramData hologram : new ArrayList<>(spawned)) {
+            if (inView.contains(hologram) || isWatched(hologram, viewers, despawnSq)) {
+                continue;
+            }
+            despawnHologramEntities(hologram);
+        }
+    }
+
+    private static boolean isWatched(HologramData hologram, List<Vector3d> viewers, double radiusSq) {
+        for (Vector3d viewer : viewers) {
+            double dx = hologram.getPosX() - viewer.getX();
+            double dy = hologram.getPosY() - viewer.getY();
+            double dz = hologram.getPosZ() - viewer.getZ();
+            if (dx * dx + dy * dy + dz * dz <= radiusSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void spawnHologramEntities(World world, HologramData hologram) {
+        if (!hologram.getLineEntityRefs().isEmpty()) {
+            // Remove what is already in the world rather than orphaning it.
+            despawnHologramEntities(hologram);
+        }
+        long version = hologram.getVersion();
         hologram.clearLineEntityRefs();
-        logger.at(Level.INFO).log("[HoloMgr] Spawning hologram '%s' with %d lines at (%.1f, %.1f, %.1f), scale=%.4f",
-            hologram.getName(), hologram.getLines().size(), hologram.getPosX(), hologram.getPosY(), hologram.getPosZ(), defaultScale);
-        for (int i = 0; i < hologram.getLines().size(); i++) {
-            String lineText = hologram.getLines().get(i);
+        // Lines can be edited from a command thread while this runs; spawn from one snapshot.
+        List<String> lines = new ArrayList<>(hologram.getLines());
+        logger.at(Level.FINE).log("[HoloMgr] Spawning hologram '%s' with %d lines at (%.1f, %.1f, %.1f), scale=%.4f",
+            hologram.getName(), lines.size(), hologram.getPosX(), hologram.getPosY(), hologram.getPosZ(), defaultScale);
+        boolean complete = true;
+        for (int i = 0; i < lines.size(); i++) {
+            String lineText = lines.get(i);
             double lineY = hologram.getLinePositionY(i);
             Vector3d pos = new Vector3d(hologram.getPosX(), lineY, hologram.getPosZ());
             Ref<EntityStore> ref = HologramSpawner.spawnLine(world, pos, lineText, defaultScale);
             if (ref != null && ref.isValid()) {
-                hologram.getLineEntityRefs().add(ref);
-                logger.at(Level.INFO).log("[HoloMgr] Spawned line %d: '%s' at y=%.1f, ref valid=%b", i, lineText, lineY, ref.isValid());
+                logger.at(Level.FINE).log("[HoloMgr] Spawned line %d: '%s' at y=%.1f, ref valid=%b", i, lineText, lineY, ref.isValid());
             } else {
                 logger.at(Level.WARNING).log("[HoloMgr] Failed to spawn line %d: '%s'", i, lineText);
+                ref = null;
+                complete = false;
             }
+            // A failed line keeps its slot as a null ref, so refs stay aligned with line
+            // indices and the next sync sees the invalid ref and respawns.
+            hologram.getLineEntityRefs().add(ref);
+            hologram.getSpawnedLineTexts().add(lineText);
         }
         hologram.setSpawned(true);
+        if (complete) {
+            hologram.setSyncedVersion(version);
+        }
+        spawnedByWorld.computeIfAbsent(worldKey(hologram.getWorldId()), k -> ConcurrentHashMap.newKeySet()).add(hologram);
+    }
+
+    private boolean moveHologramEntities(HologramData hologram) {
+        List<Ref<EntityStore>> refs = hologram.getLineEntityRefs();
+        for (Ref<EntityStore> ref : refs) {
+            if (ref == null || !ref.isValid()) {
+                return false;
+            }
+        }
+        for (int i = 0; i < refs.size(); i++) {
+            Vector3d pos = new Vector3d(hologram.getPosX(), hologram.getLinePositionY(i), hologram.getPosZ());
+            if (!HologramSpawner.moveLine(refs.get(i), pos)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean updateHologramEntities(World world, HologramData hologram) {
+        List<Ref<EntityStore>> refs = hologram.getLineEntityRefs();
+        List<String> shown = hologram.getSpawnedLineTexts();
+        if (refs.size() != shown.size()) {
+            return false;
+        }
+        for (Ref<EntityStore> ref : refs) {
+            if (ref == null || !ref.isValid()) {
+                return false;
+            }
+        }
+
+        List<String> target = new ArrayList<>(hologram.getLines());
+        int oldSize = shown.size();
+        int newSize = target.size();
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && shown.get(prefix).equals(target.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+            && shown.get(oldSize - 1 - suffix).equals(target.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+        int oldMiddle = oldSize - prefix - suffix;
+        int newMiddle = newSize - prefix - suffix;
+        int reused = Math.min(oldMiddle, newMiddle);
+
+        List<Ref<EntityStore>> newRefs = new ArrayList<>(refs.subList(0, prefix));
+        for (int i = 0; i < reused; i++) {
+            Ref<EntityStore> ref = refs.get(prefix + i);
+            if (!HologramSpawner.updateLineText(ref, target.get(prefix + i))) {
+                return false;
+            }
+            newRefs.add(ref);
+        }
+        for (int i = reused; i < oldMiddle; i++) {
+            HologramSpawner.removeLine(refs.get(prefix + i));
+        }
+        for (int i = reused; i < newMiddle; i++) {
+            int index = prefix + i;
+            Vector3d pos = new Vector3d(hologram.getPosX(), hologram.getLinePositionY(index), hologram.getPosZ());
+            Ref<EntityStore> ref = HologramSpawner.spawnLine(world, pos, target.get(index), defaultScale);
+            if (ref == null || !ref.isValid()) {
+                // Hand every live ref back so the respawn fallback removes them.
+                newRefs.addAll(refs.subList(oldSize - suffix, oldSize));
+                refs.clear();
+                refs.addAll(newRefs);
+                return false;
+            }
+            newRefs.add(ref);
+        }
+        List<Ref<EntityStore>> suffixRefs = new ArrayList<>(refs.subList(oldSize - suffix, oldSize));
+        if (oldMiddle != newMiddle) {
+            for (int i = 0; i < suffixRefs.size(); i++) {
+                int index = newSize - suffix + i;
+                HologramSpawner.moveLine(suffixRefs.get(i),
+                    new Vector3d(hologram.getPosX(), hologram.getLinePositionY(index), hologram.getPosZ()));
+            }
+        }
+        newRefs.addAll(suffixRefs);
+
+        refs.clear();
+        refs.addAll(newRefs);
+        shown.clear();
+        shown.addAll(target);
+        return true;
     }
 
     private void despawnHologramEntities(HologramData hologram) {
@@ -171,22 +813,23 @@ public final class HologramManager {
         }
         hologram.clearLineEntityRefs();
         hologram.setSpawned(false);
+        Set<HologramData> spawned = spawnedByWorld.get(worldKey(hologram.getWorldId()));
+        if (spawned != null) {
+            spawned.remove(hologram);
+        }
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String worldKey(String worldId) {
+        return worldId == null ? "" : worldId;
     }
 
     private World findWorld(String worldId) {
-        if (worldId == null || worldId.isEmpty()) {
-            return null;
-        }
         try {
-            Universe universe = Universe.get();
-            if (universe == null) {
-                return null;
-            }
-            for (World world : universe.getWorlds().values()) {
-                if (worldId.equals(world.getName())) {
-                    return world;
-                }
-            }
+            return WorldCache.find(worldId);
         } catch (Exception e) {
             logger.at(Level.WARNING).log("Failed to find world: %s - %s", worldId, e.getMessage());
         }
@@ -195,228 +838,415 @@ public final class HologramManager {
 
     // === Persistence ===
 
+    /**
+     * Persist recent changes. With the journal enabled every edit is already on disk,
+     * so this only schedules a compaction once enough entries have piled up; without it
+     * the snapshot is rewritten in the background once the save delay passes.
+     */
     public void save() {
-        try {
-            Files.createDirectories(dataFile.getParent());
-            try (BufferedWriter writer = Files.newBufferedWriter(dataFile)) {
-                writer.write("[\n");
-                boolean first = true;
-                for (HologramData h : holograms.values()) {
-                    if (!first) {
-                        writer.write(",\n");
-                    }
-                    first = false;
-                    writer.write("  {\n");
-                    writer.write("    \"Id\": \"" + h.getId() + "\",\n");
-                    writer.write("    \"Name\": \"" + escapeJson(h.getName()) + "\",\n");
-                    writer.write("    \"PosX\": " + h.getPosX() + ",\n");
-                    writer.write("    \"PosY\": " + h.getPosY() + ",\n");
-                    writer.write("    \"PosZ\": " + h.getPosZ() + ",\n");
-                    writer.write("    \"WorldId\": \"" + escapeJson(h.getWorldId() == null ? "" : h.getWorldId()) + "\",\n");
-                    writer.write("    \"CreatorId\": \"" + (h.getCreatorId() == null ? "" : h.getCreatorId()) + "\",\n");
-                    writer.write("    \"LineSpacing\": " + h.getLineSpacing() + ",\n");
-                    writer.write("    \"Lines\": [");
-                    for (int i = 0; i < h.getLines().size(); i++) {
-                        if (i > 0) {
-                            writer.write(", ");
-                        }
-                        writer.write("\"" + escapeJson(h.getLines().get(i)) + "\"");
-                    }
-                    writer.write("]\n");
-                    writer.write("  }");
-                }
-                writer.write("\n]\n");
-            }
-        } catch (Exception e) {
-            logger.at(Level.WARNING).log("Failed to save holograms: %s", e.getMessage());
+        if (journal == null || journal.size() >= compactThreshold) {
+            saver.markDirty();
         }
     }
 
-    public void load() {
-        if (!Files.exists(dataFile)) {
-            return;
+    /**
+     * Write pending changes now on the calling thread.
+     */
+    public void flush() {
+        saver.flush();
+    }
+
+    public void shutdown() {
+        if (journal == null || journal.size() > 0) {
+            saver.markDirty();
         }
-        try {
-            String content = Files.readString(dataFile).trim();
-            if (content.isEmpty() || content.equals("[]")) {
-                return;
+        saver.shutdown();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.at(Level.WARNING).log("Failed to close hologram journal: %s", e.getMessage());
             }
-            parseHologramsJson(content);
-        } catch (Exception e) {
-            logger.at(Level.WARNING).log("Failed to load holograms: %s", e.getMessage());
         }
     }
 
-    private void parseHologramsJson(String json) {
-        int depth = 0;
-        int objectStart = -1;
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-            if (c == '{') {
-                if (depth == 0) {
-                    objectStart = i;
-                }
-                depth++;
-            } else if (c == '}') {
-                depth--;
-                if (depth == 0 && objectStart >= 0) {
-                    String objectJson = json.substring(objectStart, i + 1);
-                    parseHologramObject(objectJson);
-                    objectStart = -1;
-                }
+    /**
+     * Write every hologram to {@code holograms.export.json} for hand editing.
+     */
+    public boolean exportJson() {
+        List<HologramData> snapshot = new ArrayList<>();
+        synchronized (stateLock) {
+            for (HologramData h : holograms.values()) {
+                snapshot.add(h.snapshotCopy());
             }
         }
+        try {
+            writeJson(exportFile, -1L, snapshot);
+            return true;
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Failed to export holograms: %s", e.getMessage());
+            return false;
+        }
     }
 
-    private void parseHologramObject(String json) {
+    /**
+     * Replace all holograms with the contents of {@code holograms.export.json}.
+     */
+    public boolean importJson() {
+        List<HologramData> imported = new ArrayList<>();
         try {
-            HologramData hologram = new HologramData();
-            String id = extractStringField(json, "Id");
-            if (id != null && !id.isEmpty()) {
-                hologram.setId(UUID.fromString(id));
+            readJson(exportFile, imported::add);
+        } catch (Exception e) {
+            logger.at(Level.WARNING).log("Failed to import holograms: %s", e.getMessage());
+            return false;
+        }
+        List<HologramData> previous;
+        synchronized (stateLock) {
+            previous = new ArrayList<>(holograms.values());
+            for (HologramData h : previous) {
+                removeHologram(h);
+                record(OP_DELETE, h.getId().toString());
             }
-            String name = extractStringField(json, "Name");
-            if (name != null) {
-                hologram.setName(name);
-            }
-            hologram.setPosition(
-                extractDoubleField(json, "PosX"),
-                extractDoubleField(json, "PosY"),
-                extractDoubleField(json, "PosZ")
-            );
-            hologram.setWorldId(extractStringField(json, "WorldId"));
-            String creatorId = extractStringField(json, "CreatorId");
-            if (creatorId != null && !creatorId.isEmpty()) {
-                hologram.setCreatorId(UUID.fromString(creatorId));
+            for (HologramData h : imported) {
+                putHologram(h);
+                record(encodeHologram(h));
             }
-            double spacing = extractDoubleField(json, "LineSpacing");
-            if (spacing > 0) {
-                hologram.setLineSpacing(spacing);
+        }
+        for (HologramData h : previous) {
+            if (h.isSpawned()) {
+                despawnHologram(h);
             }
-            List<String> lines = extractStringArray(json, "Lines");
-            hologram.getLines().addAll(lines);
+        }
+        if (!streaming) {
+            for (HologramData h : imported) {
+                spawnHologram(h);
+            }
+        }
+        saver.markDirty();
+        return true;
+    }
 
-            holograms.put(hologram.getId(), hologram);
-            hologramsByName.put(hologram.getName().toLowerCase(Locale.ROOT), hologram.getId());
-        } catch (Exception e) {
-            logger.at(Level.WARNING).log("Failed to parse hologram entry: %s", e.getMessage());
+    public Path getExportFile() {
+        return exportFile;
+    }
+
+    private void record(String... fields) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.append(fields);
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Failed to journal hologram change, falling back to a full save: %s", e.getMessage());
+            saver.markDirty();
         }
     }
 
-    private String extractStringField(String json, String key) {
-        String pattern = "\"" + key + "\"";
-        int idx = json.indexOf(pattern);
-        if (idx < 0) {
-            return null;
+    /**
+     * Fold the journal into a new snapshot. State is copied under the lock together
+     * with the journal roll-over, so the snapshot matches its sequence number exactly.
+     */
+    private void writeSnapshot() throws IOException {
+        if (loadFailed) {
+            return;
         }
-        int colonIdx = json.indexOf(':', idx + pattern.length());
-        if (colonIdx < 0) {
-            return null;
+        List<HologramData> snapshot = new ArrayList<>();
+        long seq;
+        synchronized (stateLock) {
+            seq = journal == null ? 0L : journal.rollOver();
+            for (HologramData h : holograms.values()) {
+                snapshot.add(h.snapshotCopy());
+            }
         }
-        int quoteStart = json.indexOf('"', colonIdx + 1);
-        if (quoteStart < 0) {
-            return null;
+        if (binary) {
+            writeBinary(binaryFile, seq, snapshot);
+            Files.deleteIfExists(dataFile);
+        } else {
+            writeJson(dataFile, seq, snapshot);
+            Files.deleteIfExists(binaryFile);
         }
-        int quoteEnd = findClosingQuote(json, quoteStart + 1);
-        if (quoteEnd < 0) {
-            return null;
+        if (journal != null) {
+            journal.discardRolledOver();
         }
-        return unescapeJson(json.substring(quoteStart + 1, quoteEnd));
     }
 
-    private double extractDoubleField(String json, String key) {
-        String pattern = "\"" + key + "\"";
-        int idx = json.indexOf(pattern);
-        if (idx < 0) {
-            return 0.0;
-        }
-        int colonIdx = json.indexOf(':', idx + pattern.length());
-        if (colonIdx < 0) {
-            return 0.0;
+    public void load() {
+        long snapshotSeq = 0L;
+        Path preferred = binary ? binaryFile : dataFile;
+        Path source = Files.exists(preferred) ? preferred : binary ? dataFile : binaryFile;
+        if (Files.exists(source)) {
+            try {
+                snapshotSeq = source == binaryFile
+                    ? readBinary(source, this::putHologram)
+                    : readJson(source, this::putHologram);
+            } catch (Exception e) {
+                loadFailed = true;
+                logger.at(Level.WARNING).log("Failed to load holograms, %s will not be overwritten: %s", source, e.getMessage());
+            }
+            if (source != preferred) {
+                // Storage format changed; rewrite the snapshot in the configured one.
+                saver.markDirty();
+            }
         }
-        int start = colonIdx + 1;
-        while (start < json.length() && Character.isWhitespace(json.charAt(start))) {
-            start++;
+        if (journal == null) {
+            return;
         }
-        int end = start;
-        while (end < json.length()) {
-            char c = json.charAt(end);
-            if (c == ',' || c == '}' || c == ']' || c == '\n') {
-                break;
+        try {
+            journal.replay(snapshotSeq, this::applyJournalEntry);
+            if (journal.size() >= compactThreshold) {
+                saver.markDirty();
             }
-            end++;
+        } catch (Exception e) {
+            loadFailed = true;
+            logger.at(Level.WARNING).log("Failed to replay hologram journal, it will not be compacted: %s", e.getMessage());
         }
+    }
+
+    private void applyJournalEntry(String[] entry) {
         try {
-            return Double.parseDouble(json.substring(start, end).trim());
-        } catch (NumberFormatException e) {
-            return 0.0;
+            if (OP_PUT.equals(entry[0])) {
+                putHologram(decodeHologram(entry));
+                return;
+            }
+            HologramData hologram = holograms.get(UUID.fromString(entry[1]));
+            if (hologram == null) {
+                return;
+            }
+            switch (entry[0]) {
+                case OP_DELETE -> removeHologram(hologram);
+                case OP_ADD_LINE -> {
+                    hologram.getLines().add(entry[2]);
+                    textIndex.addLine(hologram, entry[2]);
+                }
+                case OP_SET_LINE -> {
+                    textIndex.removeLine(hologram, hologram.getLines().set(Integer.parseInt(entry[2]), entry[3]));
+                    textIndex.addLine(hologram, entry[3]);
+                }
+                case OP_REMOVE_LINE -> textIndex.removeLine(hologram, hologram.getLines().remove(Integer.parseInt(entry[2])));
+                case OP_MOVE -> {
+                    hologram.setPosition(Double.parseDouble(entry[2]), Double.parseDouble(entry[3]), Double.parseDouble(entry[4]));
+                    spatialIndex.update(hologram);
+                }
+                default -> logger.at(Level.WARNING).log("Unknown hologram journal entry: %s", entry[0]);
+            }
+        } catch (Exception e) {
+            logger.at(Level.WARNING).log("Failed to apply hologram journal entry %s: %s", entry[0], e.getMessage());
         }
     }
 
-    private List<String> extractStringArray(String json, String key) {
-        List<String> result = new ArrayList<>();
-        String pattern = "\"" + key + "\"";
-        int idx = json.indexOf(pattern);
-        if (idx < 0) {
-            return result;
-        }
-        int bracketStart = json.indexOf('[', idx + pattern.length());
-        if (bracketStart < 0) {
-            return result;
-        }
-        int bracketEnd = json.indexOf(']', bracketStart);
-        if (bracketEnd < 0) {
-            return result;
+    private static String[] encodeHologram(HologramData h) {
+        List<String> fields = new ArrayList<>();
+        fields.add(OP_PUT);
+        fields.add(h.getId().toString());
+        fields.add(h.getName());
+        fields.add(Double.toString(h.getPosX()));
+        fields.add(Double.toString(h.getPosY()));
+        fields.add(Double.toString(h.getPosZ()));
+        fields.add(h.getWorldId());
+        fields.add(h.getCreatorId() == null ? null : h.getCreatorId().toString());
+        fields.add(Double.toString(h.getLineSpacing()));
+        fields.addAll(h.getLines());
+        return fields.toArray(new String[0]);
+    }
+
+    private static HologramData decodeHologram(String[] entry) {
+        HologramData hologram = new HologramData(entry[2],
+            Double.parseDouble(entry[3]), Double.parseDouble(entry[4]), Double.parseDouble(entry[5]), entry[6]);
+        hologram.setId(UUID.fromString(entry[1]));
+        hologram.setCreatorId(entry[7] == null ? null : UUID.fromString(entry[7]));
+        hologram.setLineSpacing(Double.parseDouble(entry[8]));
+        for (int i = 9; i < entry.length; i++) {
+            hologram.getLines().add(entry[i]);
         }
-        String arrayContent = json.substring(bracketStart + 1, bracketEnd);
-        int pos = 0;
-        while (pos < arrayContent.length()) {
-            int quoteStart = arrayContent.indexOf('"', pos);
-            if (quoteStart < 0) {
-                break;
+        return hologram;
+    }
+
+    private static void writeJson(Path file, long seq, Collection<HologramData> snapshot) throws IOException {
+        AtomicFiles.write(file, writer -> {
+            JsonWriter json = new JsonWriter(writer);
+            json.beginObject();
+            if (seq >= 0) {
+                json.name("JournalSeq").value(seq);
             }
-            int quoteEnd = findClosingQuote(arrayContent, quoteStart + 1);
-            if (quoteEnd < 0) {
-                break;
+            json.name("Holograms").beginArray();
+            for (HologramData h : snapshot) {
+                writeHologram(json, h);
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    /**
+     * Read a JSON snapshot, handing each hologram to {@code sink}. Returns the journal
+     * sequence the snapshot covers (0 for legacy files and exports).
+     */
+    private long readJson(Path file, Consumer<HologramData> sink) throws IOException {
+        long seq = 0L;
+        try (JsonReader json = new JsonReader(Files.newBufferedReader(file))) {
+            JsonReader.Token token = json.peek();
+            if (token == JsonReader.Token.BEGIN_ARRAY) {
+                // Legacy format: a bare array written before the journal existed.
+                readHolograms(json, sink);
+            } else if (token == JsonReader.Token.BEGIN_OBJECT) {
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "JournalSeq" -> seq = json.nextLong();
+                        case "Holograms" -> readHolograms(json, sink);
+                        default -> json.skipValue();
+                    }
+                }
+                json.endObject();
             }
-            result.add(unescapeJson(arrayContent.substring(quoteStart + 1, quoteEnd)));
-            pos = quoteEnd + 1;
         }
-        return result;
+        return seq;
     }
 
-    private int findClosingQuote(String str, int start) {
-        for (int i = start; i < str.length(); i++) {
-            if (str.charAt(i) == '\\') {
-                i++;
-                continue;
+    private void writeBinary(Path file, long seq, Collection<HologramData> snapshot) throws IOException {
+        BinarySnapshot.write(file, BINARY_KIND, compress, out -> {
+            out.writeLong(seq);
+            out.writeInt(snapshot.size());
+            for (HologramData h : snapshot) {
+                out.writeUuid(h.getId());
+                out.writeString(h.getName());
+                out.writeDouble(h.getPosX());
+                out.writeDouble(h.getPosY());
+                out.writeDouble(h.getPosZ());
+                out.writeString(h.getWorldId());
+                out.writeUuid(h.getCreatorId());
+                out.writeDouble(h.getLineSpacing());
+                List<String> lines = new ArrayList<>(h.getLines());
+                out.writeInt(lines.size());
+                for (String line : lines) {
+                    out.writeString(line);
+                }
+            }
+        });
+    }
+
+    private long readBinary(Path file, Consumer<HologramData> sink) throws IOException {
+        BinarySnapshot.Input in = BinarySnapshot.open(file, BINARY_KIND);
+        long seq = in.readLong();
+        // id, name length, position, world length, creator, spacing, line count
+        int count = in.readCount(16 + 4 + 24 + 4 + 16 + 8 + 4);
+        for (int i = 0; i < count; i++) {
+            HologramData hologram = new HologramData();
+            UUID id = in.readUuid();
+            if (id != null) {
+                hologram.setId(id);
             }
-            if (str.charAt(i) == '"') {
-                return i;
+            hologram.setName(in.readString());
+            hologram.setPosition(in.readDouble(), in.readDouble(), in.readDouble());
+            hologram.setWorldId(in.readString());
+            hologram.setCreatorId(in.readUuid());
+            hologram.setLineSpacing(in.readDouble());
+            int lineCount = in.readCount(4);
+            List<String> lines = new ArrayList<>(lineCount);
+            for (int l = 0; l < lineCount; l++) {
+                String line = in.readString();
+                lines.add(line == null ? "" : line);
+            }
+            hologram.getLines().addAll(lines);
+            if (hologram.getName() != null) {
+                sink.accept(hologram);
             }
         }
-        return -1;
+        return seq;
     }
 
-    private static String escapeJson(String value) {
-        if (value == null) {
-            return "";
+    private static void writeHologram(JsonWriter json, HologramData h) throws IOException {
+        json.beginObject();
+        json.name("Id").value(h.getId().toString());
+        json.name("Name").value(h.getName());
+        json.name("PosX").value(h.getPosX());
+        json.name("PosY").value(h.getPosY());
+        json.name("PosZ").value(h.getPosZ());
+        json.name("WorldId").value(h.getWorldId() == null ? "" : h.getWorldId());
+        json.name("CreatorId").value(h.getCreatorId() == null ? "" : h.getCreatorId().toString());
+        json.name("LineSpacing").value(h.getLineSpacing());
+        json.name("Lines").beginInlineArray();
+        for (String line : h.getLines()) {
+            json.value(line);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private void readHolograms(JsonReader json, Consumer<HologramData> sink) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            int depth = json.depth();
+            HologramData hologram;
+            try {
+                hologram = readHologram(json);
+            } catch (IOException e) {
+                logger.at(Level.WARNING).log("Skipping malformed hologram entry: %s", e.getMessage());
+                json.skipRest(depth);
+                continue;
+            }
+            if (hologram != null) {
+                sink.accept(hologram);
+            }
         }
-        return value.replace("\\", "\\\\")
-                     .replace("\"", "\\\"")
-                     .replace("\n", "\\n")
-                     .replace("\r", "\\r")
-                     .replace("\t", "\\t");
+        json.endArray();
     }
 
-    private static String unescapeJson(String value) {
-        if (value == null) {
-            return "";
+    /**
+     * Read one entry. A bad field value throws; {@link #readHolograms} then skips
+     * the rest of the entry and drops only this hologram.
+     */
+    private HologramData readHologram(JsonReader json) throws IOException {
+        HologramData hologram = new HologramData();
+        String id = null;
+        String creatorId = null;
+        double x = 0;
+        double y = 0;
+        double z = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "Id" -> id = json.nextStringOrNull();
+                case "Name" -> hologram.setName(json.nextStringOrNull());
+                case "PosX" -> x = json.nextDouble();
+                case "PosY" -> y = json.nextDouble();
+                case "PosZ" -> z = json.nextDouble();
+                case "WorldId" -> hologram.setWorldId(json.nextStringOrNull());
+                case "CreatorId" -> creatorId = json.nextStringOrNull();
+                case "LineSpacing" -> {
+                    double spacing = json.nextDouble();
+                    if (spacing > 0) {
+                        hologram.setLineSpacing(spacing);
+                    }
+                }
+                case "Lines" -> {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        String line = json.nextStringOrNull();
+                        hologram.getLines().add(line == null ? "" : line);
+                    }
+                    json.endArray();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        hologram.setPosition(x, y, z);
+        try {
+            if (id != null && !id.isEmpty()) {
+                hologram.setId(UUID.fromString(id));
+            }
+            if (creatorId != null && !creatorId.isEmpty()) {
+                hologram.setCreatorId(UUID.fromString(creatorId));
+            }
+        } catch (IllegalArgumentException e) {
+            logger.at(Level.WARNING).log("Failed to parse hologram entry: %s", e.getMessage());
+            return null;
         }
-        return value.replace("\\\"", "\"")
-                     .replace("\\n", "\n")
-                     .replace("\\r", "\r")
-                     .replace("\\t", "\t")
-                     .replace("\\\\", "\\");
+        if (hologram.getName() == null) {
+            logger.at(Level.WARNING).log("Skipping hologram %s without a name", hologram.getId());
+            return null;
+        }
+        return hologram;
     }
 }
@@ -0,0 +1,232 @@
+package dev.lussuria.admintools.hologram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-world grid of holograms bucketed by horizontal cell.
+ * Radius and box queries only visit the cells that overlap the query area.
+ */
+final class HologramSpatialIndex {
+    static final int CELL_SIZE = 32;
+    private static final int CELL_SHIFT = 5;
+    // Farther than any block coordinate can be; keeps cell and ring arithmetic in int range.
+    private static final double MAX_RADIUS = Integer.MAX_VALUE;
+
+    private final Map<String, Map<Long, Set<HologramData>>> worlds = new ConcurrentHashMap<>();
+    private final Map<UUID, Location> locations = new ConcurrentHashMap<>();
+
+    void add(HologramData hologram) {
+        String worldId = worldKey(hologram.getWorldId());
+        long cell = cellKey(cellCoord(hologram.getPosX()), cellCoord(hologram.getPosZ()));
+        Location previous = locations.put(hologram.getId(), new Location(worldId, cell));
+        if (previous != null) {
+            removeFromCell(previous, hologram);
+        }
+        // Add inside compute so a concurrent removeFromCell cannot drop the bucket
+        // between looking it up and adding to it.
+        worlds.computeIfAbsent(worldId, k -> new ConcurrentHashMap<>())
+            .compute(cell, (k, bucket) -> {
+                if (bucket == null) {
+                    bucket = ConcurrentHashMap.newKeySet();
+                }
+                bucket.add(hologram);
+                return bucket;
+            });
+    }
+
+    void remove(HologramData hologram) {
+        Location location = locations.remove(hologram.getId());
+        if (location != null) {
+            removeFromCell(location, hologram);
+        }
+    }
+
+    /**
+     * Re-bucket a hologram after its position or world changed.
+     */
+    void update(HologramData hologram) {
+        String worldId = worldKey(hologram.getWorldId());
+        long cell = cellKey(cellCoord(hologram.getPosX()), cellCoord(hologram.getPosZ()));
+        Location current = locations.get(hologram.getId());
+        if (current != null && current.cell == cell && current.worldId.equals(worldId)) {
+            return;
+        }
+        add(hologram);
+    }
+
+    void clear() {
+        worlds.clear();
+        locations.clear();
+    }
+
+    List<HologramData> queryRadius(String worldId, double x, double y, double z, double radius) {
+        Map<Long, Set<HologramData>> cells = worlds.get(worldKey(worldId));
+        if (cells == null || !(radius >= 0)) {
+            return Collections.emptyList();
+        }
+        radius = Math.min(radius, MAX_RADIUS);
+        double radiusSq = radius * radius;
+        List<HologramData> result = new ArrayList<>();
+        for (Set<HologramData> bucket : buckets(cells, cellCoord(x - radius), cellCoord(z - radius),
+            cellCoord(x + radius), cellCoord(z + radius))) {
+            for (HologramData hologram : bucket) {
+                if (distanceSq(hologram, x, y, z) <= radiusSq) {
+                    result.add(hologram);
+                }
+            }
+        }
+        return result;
+    }
+
+    List<HologramData> queryBox(String worldId, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        Map<Long, Set<HologramData>> cells = worlds.get(worldKey(worldId));
+        if (cells == null) {
+            return Collections.emptyList();
+        }
+        List<HologramData> result = new ArrayList<>();
+        for (Set<HologramData> bucket : buckets(cells, cellCoord(minX), cellCoord(minZ), cellCoord(maxX), cellCoord(maxZ))) {
+            for (HologramData h : bucket) {
+                if (h.getPosX() >= minX && h.getPosX() <= maxX
+                    && h.getPosY() >= minY && h.getPosY() <= maxY
+                    && h.getPosZ() >= minZ && h.getPosZ() <= maxZ) {
+                    result.add(h);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Search outward ring by ring; stops as soon as no unvisited cell can hold anything closer.
+     * Once a ring has more cells than the world has occupied ones, the occupied cells are
+     * scanned directly instead.
+     */
+    HologramData nearest(String worldId, double x, double y, double z, double maxRadius) {
+        Map<Long, Set<HologramData>> cells = worlds.get(worldKey(worldId));
+        if (cells == null || cells.isEmpty() || !(maxRadius >= 0)) {
+            return null;
+        }
+        maxRadius = Math.min(maxRadius, MAX_RADIUS);
+        int centerCx = cellCoord(x);
+        int centerCz = cellCoord(z);
+        int maxRing = (int) Math.ceil(maxRadius / CELL_SIZE) + 1;
+        Nearest nearest = new Nearest(x, y, z, maxRadius * maxRadius);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double ringDistance = Math.max(0, (ring - 1) * (double) CELL_SIZE);
+            if (nearest.best != null && ringDistance * ringDistance > nearest.bestSq) {
+                break;
+            }
+            if (8L * ring >= cells.size()) {
+                for (Set<HologramData> bucket : cells.values()) {
+                    nearest.offer(bucket);
+                }
+                break;
+            }
+            if (ring == 0) {
+                nearest.offer(cells.get(cellKey(centerCx, centerCz)));
+                continue;
+            }
+            for (int cx = centerCx - ring; cx <= centerCx + ring; cx++) {
+                nearest.offer(cells.get(cellKey(cx, centerCz - ring)));
+                nearest.offer(cells.get(cellKey(cx, centerCz + ring)));
+            }
+            for (int cz = centerCz - ring + 1; cz < centerCz + ring; cz++) {
+                nearest.offer(cells.get(cellKey(centerCx - ring, cz)));
+                nearest.offer(cells.get(cellKey(centerCx + ring, cz)));
+            }
+        }
+        return nearest.best;
+    }
+
+    /**
+     * The buckets of the cells in the given range, or every occupied bucket when
+     * the range covers more cells than are occupied.
+     */
+    private static Iterable<Set<HologramData>> buckets(Map<Long, Set<HologramData>> cells,
+                                                       int minCx, int minCz, int maxCx, int maxCz) {
+        if (maxCx < minCx || maxCz < minCz) {
+            return Collections.emptyList();
+        }
+        long area = ((long) maxCx - minCx + 1) * ((long) maxCz - minCz + 1);
+        if (area >= cells.size()) {
+            return cells.values();
+        }
+        List<Set<HologramData>> buckets = new ArrayList<>();
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cz = minCz; cz <= maxCz; cz++) {
+                Set<HologramData> bucket = cells.get(cellKey(cx, cz));
+                if (bucket != null) {
+                    buckets.add(bucket);
+                }
+            }
+        }
+        return buckets;
+    }
+
+    private void removeFromCell(Location location, HologramData hologram) {
+        Map<Long, Set<HologramData>> cells = worlds.get(location.worldId);
+        if (cells == null) {
+            return;
+        }
+        cells.computeIfPresent(location.cell, (k, bucket) -> {
+            bucket.remove(hologram);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    static double distanceSq(HologramData hologram, double x, double y, double z) {
+        double dx = hologram.getPosX() - x;
+        double dy = hologram.getPosY() - y;
+        double dz = hologram.getPosZ() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    static int cellCoord(double coord) {
+        return ((int) Math.floor(coord)) >> CELL_SHIFT;
+    }
+
+    static long cellKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static String worldKey(String worldId) {
+        return worldId == null ? "" : worldId;
+    }
+
+    private record Location(String worldId, long cell) {
+    }
+
+    private static final class Nearest {
+        private final double x;
+        private final double y;
+        private final double z;
+        private HologramData best;
+        private double bestSq;
+
+        Nearest(double x, double y, double z, double bestSq) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.bestSq = bestSq;
+        }
+
+        void offer(Set<HologramData> bucket) {
+            if (bucket == null) {
+                return;
+            }
+            for (HologramData hologram : bucket) {
+                double d = distanceSq(hologram, x, y, z);
+                if (d <= bestSq) {
+                    bestSq = d;
+                    best = hologram;
+                }
+            }
+        }
+    }
+}
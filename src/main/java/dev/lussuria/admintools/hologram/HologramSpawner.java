@@ -72,6 +72,38 @@ public final class HologramSpawner {
         return store.addEntity(holder, AddReason.SPAWN);
     }
 
+    /**
+     * Replace the text of a spawned line by mutating its nameplate.
+     * Must be called on the world thread.
+     */
+    public static boolean updateLineText(Ref<EntityStore> ref, String text) {
+        if (ref == null || !ref.isValid()) {
+            return false;
+        }
+        Nameplate nameplate = ref.getStore().getComponent(ref, Nameplate.getComponentType());
+        if (nameplate == null) {
+            return false;
+        }
+        nameplate.setText(text);
+        return true;
+    }
+
+    /**
+     * Move a spawned line entity to a new position.
+     * Must be called on the world thread.
+     */
+    public static boolean moveLine(Ref<EntityStore> ref, Vector3d position) {
+        if (ref == null || !ref.isValid()) {
+            return false;
+        }
+        TransformComponent transform = ref.getStore().getComponent(ref, TransformComponent.getComponentType());
+        if (transform == null) {
+            return false;
+        }
+        transform.setPosition(position);
+        return true;
+    }
+
     /**
      * Remove a hologram line entity.
      * Must be called on the world thread.
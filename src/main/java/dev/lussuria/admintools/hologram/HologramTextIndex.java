@@ -0,0 +1,146 @@
+package dev.lussuria.admintools.hologram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index from the words on hologram lines to the holograms showing them.
+ * Line edits add and remove only the words of the lines involved. A search reads
+ * the postings of its terms and nothing else, so its cost follows the number of
+ * matches, not the number of lines stored.
+ */
+final class HologramTextIndex {
+    // Word -> hologram -> how many times the word appears across its lines.
+    private final Map<String, Map<HologramData, Integer>> postings = new ConcurrentHashMap<>();
+    private final Set<HologramData> documents = ConcurrentHashMap.newKeySet();
+
+    record Match(HologramData hologram, int matchedTerms, double score) {
+    }
+
+    void add(HologramData hologram) {
+        if (documents.add(hologram)) {
+            for (String line : hologram.getLines()) {
+                update(hologram, line, 1);
+            }
+        }
+    }
+
+    void remove(HologramData hologram) {
+        if (documents.remove(hologram)) {
+            for (String line : hologram.getLines()) {
+                update(hologram, line, -1);
+            }
+        }
+    }
+
+    /**
+     * Index a line added to (or replacing one on) an indexed hologram.
+     */
+    void addLine(HologramData hologram, String text) {
+        if (documents.contains(hologram)) {
+            update(hologram, text, 1);
+        }
+    }
+
+    void removeLine(HologramData hologram, String text) {
+        if (documents.contains(hologram)) {
+            update(hologram, text, -1);
+        }
+    }
+
+    /**
+     * Holograms containing any of the words in {@code query}, best first: more of
+     * the query's words matched, then a higher tf-idf score, then name. Only the
+     * best {@code offset + limit + 1} are kept while ranking.
+     */
+    List<Match> search(String query, int offset, int limit) {
+        Set<String> terms = tokenize(query);
+        Map<HologramData, double[]> scores = new HashMap<>();
+        int total = Math.max(1, documents.size());
+        for (String term : terms) {
+            Map<HologramData, Integer> posting = postings.get(term);
+            if (posting == null || posting.isEmpty()) {
+                continue;
+            }
+            double idf = Math.log(1.0 + (double) total / posting.size());
+            for (Map.Entry<HologramData, Integer> entry : posting.entrySet()) {
+                double[] score = scores.computeIfAbsent(entry.getKey(), h -> new double[2]);
+                score[0]++;
+                score[1] += entry.getValue() * idf;
+            }
+        }
+        if (scores.size() <= offset || limit <= 0) {
+            return List.of();
+        }
+
+        Comparator<Match> ranking = Comparator.comparingInt(Match::matchedTerms).reversed()
+            .thenComparing(Comparator.comparingDouble(Match::score).reversed())
+            .thenComparing(match -> match.hologram().getName().toLowerCase(Locale.ROOT));
+        int keep = (int) Math.min(Integer.MAX_VALUE - 1, (long) offset + limit) + 1;
+        PriorityQueue<Match> best = new PriorityQueue<>(ranking.reversed());
+        for (Map.Entry<HologramData, double[]> entry : scores.entrySet()) {
+            best.add(new Match(entry.getKey(), (int) entry.getValue()[0], entry.getValue()[1]));
+            if (best.size() > keep) {
+                best.poll();
+            }
+        }
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        return ranked.subList(offset, ranked.size());
+    }
+
+    private void update(HologramData hologram, String text, int delta) {
+        Map<String, Integer> counts = new HashMap<>();
+        forEachToken(text, token -> counts.merge(token, 1, Integer::sum));
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            int change = delta * count.getValue();
+            postings.compute(count.getKey(), (token, posting) -> {
+                if (posting == null) {
+                    if (change <= 0) {
+                        return null;
+                    }
+                    posting = new ConcurrentHashMap<>();
+                }
+                posting.compute(hologram, (h, current) -> {
+                    int next = (current == null ? 0 : current) + change;
+                    return next > 0 ? next : null;
+                });
+                return posting.isEmpty() ? null : posting;
+            });
+        }
+    }
+
+    /**
+     * The distinct lower-cased words of {@code text}: runs of letters and digits.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        forEachToken(text, tokens::add);
+        return tokens;
+    }
+
+    private static void forEachToken(String text, Consumer<String> sink) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                sink.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dev.lussuria.admintools.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public final class AtomicFiles {
+    private AtomicFiles() {
+    }
+
+    @FunctionalInterface
+    public interface WriterAction {
+        void write(BufferedWriter writer) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StreamAction {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Write to a sibling temp file and rename it over the target, so readers and
+     * crashes never observe a half-written file.
+     */
+    public static void write(Path target, WriterAction action) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(target.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+            action.write(writer);
+        }
+        replace(temp, target);
+    }
+
+    public static void writeBytes(Path target, StreamAction action) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(target.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            action.write(out);
+        }
+        replace(temp, target);
+    }
+
+    private static void replace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package dev.lussuria.admintools.persistence;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary snapshot container.
+ * <p>
+ * Layout: {@code int magic, short version, short flags, string kind}, then the
+ * payload (deflated when {@link #FLAG_DEFLATE} is set), then a trailing
+ * {@code long} holding the uncompressed payload size. Strings are an {@code int}
+ * byte length followed by UTF-8 ({@code -1} for null), UUIDs are two longs with the
+ * nil UUID standing for null, and doubles are stored raw.
+ * <p>
+ * Files are read into a heap buffer in one pass and the channel is closed before
+ * decoding, so no mapping outlives the read and the file can be replaced right away
+ * (a live mapping blocks replacing the file on Windows).
+ */
+public final class BinarySnapshot {
+    private static final int MAGIC = 0x4154534E;
+    private static final short VERSION = 1;
+    private static final short FLAG_DEFLATE = 1;
+
+    private BinarySnapshot() {
+    }
+
+    @FunctionalInterface
+    public interface PayloadWriter {
+        void write(Output out) throws IOException;
+    }
+
+    public static void write(Path target, String kind, boolean deflate, PayloadWriter payload) throws IOException {
+        AtomicFiles.writeBytes(target, raw -> {
+            DataOutputStream header = new DataOutputStream(raw);
+            header.writeInt(MAGIC);
+            header.writeShort(VERSION);
+            header.writeShort(deflate ? FLAG_DEFLATE : 0);
+            writeString(header, kind);
+            header.flush();
+
+            Deflater deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+            try {
+                OutputStream body = deflate ? new DeflaterOutputStream(header, deflater, 1 << 16) : header;
+                Output out = new Output(body);
+                payload.write(out);
+                out.data.flush();
+                if (body instanceof DeflaterOutputStream deflating) {
+                    deflating.finish();
+                }
+                header.writeLong(out.data.size());
+                header.flush();
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+        });
+    }
+
+    /**
+     * Read {@code file} and return a reader positioned at the start of the payload.
+     */
+    public static Input open(Path file, String kind) throws IOException {
+        ByteBuffer data = readFully(file);
+        try {
+            if (data.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file.getFileName());
+            }
+            short version = data.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            short flags = data.getShort();
+            Input header = new Input(data);
+            String fileKind = header.readString();
+            if (!kind.equals(fileKind)) {
+                throw new IOException("Expected a " + kind + " snapshot but found " + fileKind);
+            }
+            long payloadSize = data.getLong(data.limit() - Long.BYTES);
+            ByteBuffer body = data.slice(data.position(), data.limit() - Long.BYTES - data.position());
+            if ((flags & FLAG_DEFLATE) == 0) {
+                return new Input(body);
+            }
+            return new Input(inflate(body, payloadSize));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated snapshot file: " + file.getFileName());
+        }
+    }
+
+    private static ByteBuffer readFully(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file too large: " + file.getFileName());
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated snapshot file: " + file.getFileName());
+                }
+            }
+            return buffer.flip();
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer compressed, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot payload too large: " + size);
+        }
+        ByteBuffer result = ByteBuffer.allocate((int) size);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (result.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(result) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated compressed snapshot");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed snapshot: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return result.flip();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static final class Output {
+        private final DataOutputStream data;
+
+        private Output(OutputStream out) {
+            this.data = new DataOutputStream(out);
+        }
+
+        public void writeString(String value) throws IOException {
+            BinarySnapshot.writeString(data, value);
+        }
+
+        public void writeUuid(UUID value) throws IOException {
+            data.writeLong(value == null ? 0L : value.getMostSignificantBits());
+            data.writeLong(value == null ? 0L : value.getLeastSignificantBits());
+        }
+
+        public void writeDouble(double value) throws IOException {
+            data.writeDouble(value);
+        }
+
+        public void writeLong(long value) throws IOException {
+            data.writeLong(value);
+        }
+
+        public void writeInt(int value) throws IOException {
+            data.writeInt(value);
+        }
+
+        public void writeBoolean(boolean value) throws IOException {
+            data.writeBoolean(value);
+        }
+    }
+
+    public static final class Input {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        private Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public String readString() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.remaining()) {
+                throw new IOException("Truncated snapshot string");
+            }
+            if (buffer.hasArray()) {
+                String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                return value;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        public UUID readUuid() throws IOException {
+            long msb = readLong();
+            long lsb = readLong();
+            return msb == 0L && lsb == 0L ? null : new UUID(msb, lsb);
+        }
+
+        public double readDouble() throws IOException {
+            try {
+                return buffer.getDouble();
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot");
+            }
+        }
+
+        public long readLong() throws IOException {
+            try {
+                return buffer.getLong();
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot");
+            }
+        }
+
+        public int readInt() throws IOException {
+            try {
+                return buffer.getInt();
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot");
+            }
+        }
+
+        public boolean readBoolean() throws IOException {
+            try {
+                return buffer.get() != 0;
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot");
+            }
+        }
+
+        /**
+         * Read an element count, rejecting values the remaining bytes could not hold.
+         */
+        public int readCount(int minElementBytes) throws IOException {
+            int count = readInt();
+            if (count < 0 || (long) count * minElementBytes > buffer.remaining()) {
+                throw new IOException("Corrupt snapshot count " + count);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package dev.lussuria.admintools.persistence;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of mutations stored next to a snapshot file.
+ * <p>
+ * Every entry carries a sequence number. A snapshot records the last sequence it
+ * contains, so replay after a crash between writing the snapshot and dropping the
+ * old journal never applies an entry twice. Compaction rolls the active file over
+ * to {@code <name>.1} before the snapshot is written and deletes it afterwards.
+ * <p>
+ * Entries are tab-separated fields, one per line, with backslash escapes and a
+ * trailing CRC32 so a line torn by a crash is recognised and skipped.
+ */
+public final class ChangeJournal {
+    private final Path file;
+    private final Path previousFile;
+    private BufferedWriter writer;
+    private long lastSeq;
+    private int entries;
+    // Entries counted in {@code entries} that the pending roll-over moved aside.
+    private int rolledEntries;
+
+    public ChangeJournal(Path file) {
+        this.file = file;
+        this.previousFile = file.resolveSibling(file.getFileName() + ".1");
+    }
+
+    /**
+     * Replay entries newer than {@code snapshotSeq} from the rolled-over file and the
+     * active file, in order. Partially written trailing lines are skipped.
+     */
+    public synchronized void replay(long snapshotSeq, Consumer<String[]> handler) throws IOException {
+        lastSeq = snapshotSeq;
+        entries = 0;
+        rolledEntries = 0;
+        replayFile(previousFile, handler);
+        replayFile(file, handler);
+    }
+
+    private void replayFile(Path path, Consumer<String[]> handler) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int checksumStart = line.lastIndexOf('\t');
+                if (checksumStart < 0 || !line.substring(checksumStart + 1).equals(checksum(line, checksumStart))) {
+                    continue;
+                }
+                List<String> fields = decode(line.substring(0, checksumStart));
+                if (fields.size() < 2) {
+                    continue;
+                }
+                long seq;
+                try {
+                    seq = Long.parseLong(fields.get(0));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (seq <= lastSeq) {
+                    continue;
+                }
+                lastSeq = seq;
+                entries++;
+                handler.accept(fields.subList(1, fields.size()).toArray(new String[0]));
+            }
+        }
+    }
+
+    public synchronized long append(String... fields) throws IOException {
+        if (writer == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            boolean torn = !endsWithNewline(file);
+            writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (torn) {
+                // Terminate a line cut off by a crash so it does not swallow this entry.
+                writer.write('\n');
+            }
+        }
+        long seq = ++lastSeq;
+        StringBuilder line = new StringBuilder();
+        line.append(seq);
+        for (String field : fields) {
+            line.append('\t');
+            encode(field, line);
+        }
+        String crc = checksum(line, line.length());
+        line.append('\t').append(crc).append('\n');
+        writer.write(line.toString());
+        writer.flush();
+        entries++;
+        return seq;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Number of applied entries not yet covered by a snapshot on disk.
+     */
+    public synchronized int size() {
+        return entries;
+    }
+
+    /**
+     * Move the active file aside so new entries start a fresh file.
+     * Returns the sequence number the next snapshot covers. The entry count is
+     * only reduced by {@link #discardRolledOver()}, so a failed snapshot still
+     * counts towards the next compaction.
+     */
+    public synchronized long rollOver() throws IOException {
+        close();
+        if (Files.exists(file)) {
+            if (Files.exists(previousFile)) {
+                // An earlier compaction failed; keep both until a snapshot covers them.
+                try (BufferedWriter out = Files.newBufferedWriter(previousFile, StandardOpenOption.APPEND)) {
+                    out.write(Files.readString(file));
+                }
+                Files.delete(file);
+            } else {
+                Files.move(file, previousFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        rolledEntries = entries;
+        return lastSeq;
+    }
+
+    /**
+     * Called once a snapshot covering everything up to {@link #rollOver()} is on disk.
+     */
+    public synchronized void discardRolledOver() throws IOException {
+        entries -= rolledEntries;
+        rolledEntries = 0;
+        Files.deleteIfExists(previousFile);
+    }
+
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private static boolean endsWithNewline(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return true;
+        }
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1);
+            channel.read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private static String checksum(CharSequence line, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(line.subSequence(0, length).toString().getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static void encode(String value, StringBuilder out) {
+        if (value == null) {
+            out.append("\\0");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static List<String> decode(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean isNull = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(isNull ? null : current.toString());
+                current.setLength(0);
+                isNull = false;
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                switch (next) {
+                    case 't' -> current.append('\t');
+                    case 'n' -> current.append('\n');
+                    case 'r' -> current.append('\r');
+                    case '0' -> isNull = true;
+                    default -> current.append(next);
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(isNull ? null : current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,107 @@
+package dev.lussuria.admintools.persistence;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Write-behind saver: callers mark data dirty and a background thread writes it
+ * once per window, however many changes arrived in between.
+ */
+public final class DebouncedSaver {
+    private static final long RETRY_DELAY_MILLIS = 5000L;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10L;
+
+    private final HytaleLogger logger;
+    private final String name;
+    private final long delayMillis;
+    private final SaveAction writer;
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    @FunctionalInterface
+    public interface SaveAction {
+        void save() throws IOException;
+    }
+
+    public DebouncedSaver(HytaleLogger logger, String name, long delayMillis, SaveAction writer) {
+        this.logger = logger;
+        this.name = name;
+        this.delayMillis = Math.max(0L, delayMillis);
+        this.writer = writer;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "AdminTools-Saver-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Waiting saves are dropped on shutdown; the final flush writes them instead.
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    public void markDirty() {
+        dirty.set(true);
+        schedule(delayMillis);
+    }
+
+    /**
+     * Write pending changes on the calling thread.
+     *
+     * @return false if the write failed and the data is still dirty
+     */
+    public boolean flush() {
+        synchronized (writeLock) {
+            if (!dirty.getAndSet(false)) {
+                return true;
+            }
+            try {
+                writer.save();
+                return true;
+            } catch (Exception e) {
+                dirty.set(true);
+                logger.at(Level.WARNING).log("Failed to save %s: %s", name, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Stop the background thread, letting a write already in progress finish
+     * rather than interrupting it, then write anything still pending.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.at(Level.WARNING).log("Background save of %s still running after %ds", name, SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void schedule(long delay) {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::runScheduled, delay, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // Executor already shut down; the final flush covers it.
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void runScheduled() {
+        scheduled.set(false);
+        if (!flush()) {
+            // Try again later rather than waiting for the next change.
+            schedule(Math.max(delayMillis, RETRY_DELAY_MILLIS));
+        }
+    }
+}
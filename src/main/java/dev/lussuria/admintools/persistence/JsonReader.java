@@ -0,0 +1,438 @@
+package dev.lussuria.admintools.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Single-pass pull parser over a {@link Reader}. Only a fixed-size character
+ * buffer and the value currently being read are held in memory, so loading a
+ * data file costs time and space linear in its size.
+ */
+public final class JsonReader implements Closeable {
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder scratch = new StringBuilder();
+    private int pos;
+    private int limit;
+    private int line = 1;
+    private int[] stack = new int[16];
+    private int stackSize = 1;
+    private Token peeked;
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_DOCUMENT -> {
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                if (nextNonWhitespace() < 0) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                pos--;
+                return peeked = readValueToken();
+            }
+            case NONEMPTY_DOCUMENT -> {
+                if (nextNonWhitespace() >= 0) {
+                    throw syntaxError("Expected end of document");
+                }
+                return peeked = Token.END_DOCUMENT;
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                int c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected name");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return peeked = readValueToken();
+            }
+            case EMPTY_ARRAY, NONEMPTY_ARRAY -> {
+                int c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (scope == NONEMPTY_ARRAY) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or ']'");
+                    }
+                } else {
+                    pos--;
+                }
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                return peeked = readValueToken();
+            }
+            default -> throw new IllegalStateException("Unknown scope " + scope);
+        }
+    }
+
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readQuoted();
+    }
+
+    /**
+     * Read a string value; numbers and booleans are returned in their literal form.
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER && token != Token.BOOLEAN) {
+            throw syntaxError("Expected string but was " + token);
+        }
+        peeked = null;
+        return token == Token.STRING ? readQuoted() : readLiteral();
+    }
+
+    public double nextDouble() throws IOException {
+        String value = nextNumberText();
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Malformed number '" + value + "'");
+        }
+    }
+
+    public long nextLong() throws IOException {
+        String value = nextNumberText();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            double asDouble;
+            try {
+                asDouble = Double.parseDouble(value);
+            } catch (NumberFormatException notANumber) {
+                throw syntaxError("Malformed number '" + value + "'");
+            }
+            if (asDouble != Math.rint(asDouble)) {
+                throw syntaxError("Expected integer but was '" + value + "'");
+            }
+            return (long) asDouble;
+        }
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw syntaxError("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        String value = readLiteral();
+        if (value.equals("true")) {
+            return true;
+        }
+        if (value.equals("false")) {
+            return false;
+        }
+        throw syntaxError("Expected boolean but was '" + value + "'");
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        String value = readLiteral();
+        if (!value.equals("null")) {
+            throw syntaxError("Expected null but was '" + value + "'");
+        }
+    }
+
+    /**
+     * Read a string that may also be written as {@code null}.
+     */
+    public String nextStringOrNull() throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    /**
+     * Skip the next value, including nested objects and arrays.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    depth++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    depth--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    depth--;
+                }
+                case NAME -> nextName();
+                case STRING, NUMBER, BOOLEAN -> nextString();
+                case NULL -> nextNull();
+                case END_DOCUMENT -> throw syntaxError("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Nesting depth, to pass to {@link #skipRest} before reading a value.
+     */
+    public int depth() {
+        return stackSize;
+    }
+
+    /**
+     * Recover from a failed read of a value that started at {@code depth}: skip
+     * whatever is left of it, so reading continues with the value after it. A
+     * read that fails on a wrong type or a malformed literal leaves the reader in
+     * a consistent state; broken structure still throws here.
+     */
+    public void skipRest(int depth) throws IOException {
+        if (stackSize <= depth) {
+            // Failed before the value was entered, so none of it was consumed.
+            if (hasNext()) {
+                skipValue();
+            }
+            return;
+        }
+        while (stackSize > depth) {
+            switch (peek()) {
+                case END_OBJECT -> endObject();
+                case END_ARRAY -> endArray();
+                default -> skipValue();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stackSize = 0;
+        in.close();
+    }
+
+    private String nextNumberText() throws IOException {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) {
+            // Leave the token unread so the caller can skip it.
+            throw syntaxError("Expected number but was " + token);
+        }
+        peeked = null;
+        return token == Token.NUMBER ? readLiteral() : readQuoted().trim();
+    }
+
+    private Token readValueToken() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return Token.NUMBER;
+                }
+                throw syntaxError(c < 0 ? "Unexpected end of document" : "Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            pos = 0;
+            limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (fill()) {
+            char c = buffer[pos++];
+            if (c == '\n') {
+                line++;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read the rest of a quoted string; the opening quote has already been consumed.
+     */
+    private String readQuoted() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    return scratch.toString();
+                }
+                if (c == '\\') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    scratch.append(readEscape());
+                    start = pos;
+                    continue;
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                pos++;
+            }
+            scratch.append(buffer, start, pos - start);
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (!fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        return switch (c) {
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'u' -> readUnicodeEscape();
+            default -> c;
+        };
+    }
+
+    private char readUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            if (!fill()) {
+                throw syntaxError("Unterminated escape sequence");
+            }
+            int digit = Character.digit(buffer[pos++], 16);
+            if (digit < 0) {
+                throw syntaxError("Malformed unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    private String readLiteral() throws IOException {
+        scratch.setLength(0);
+        while (fill()) {
+            char c = buffer[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                break;
+            }
+            scratch.append(c);
+            pos++;
+        }
+        return scratch.toString();
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at line " + line);
+    }
+}
@@ -0,0 +1,207 @@
+package dev.lussuria.admintools.persistence;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming pretty-printer for the data files, written straight to a {@link Writer}
+ * so snapshots never exist as one large string. Arrays opened with
+ * {@link #beginInlineArray()} keep their elements on a single line.
+ */
+public final class JsonWriter {
+    private static final String INDENT = "  ";
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+    private static final int EMPTY_INLINE_ARRAY = 7;
+    private static final int NONEMPTY_INLINE_ARRAY = 8;
+
+    private final Writer out;
+    private int[] stack = new int[16];
+    private int stackSize = 1;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        out.write('{');
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        out.write('[');
+        return this;
+    }
+
+    public JsonWriter beginInlineArray() throws IOException {
+        beforeValue();
+        push(EMPTY_INLINE_ARRAY);
+        out.write('[');
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        int scope = peek();
+        if (scope == EMPTY_INLINE_ARRAY || scope == NONEMPTY_INLINE_ARRAY) {
+            stackSize--;
+            out.write(']');
+            afterClose();
+            return this;
+        }
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        int scope = peek();
+        if (scope == NONEMPTY_OBJECT) {
+            out.write(',');
+        } else if (scope != EMPTY_OBJECT) {
+            throw new IllegalStateException("Name outside of an object");
+        }
+        newline();
+        stack[stackSize - 1] = DANGLING_NAME;
+        writeQuoted(name);
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeQuoted(value);
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Non-finite number: " + value);
+        }
+        beforeValue();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+            case EMPTY_DOCUMENT -> stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            case DANGLING_NAME -> {
+                out.write(": ");
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+            }
+            case EMPTY_ARRAY -> {
+                newline();
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+            }
+            case NONEMPTY_ARRAY -> {
+                out.write(',');
+                newline();
+            }
+            case EMPTY_INLINE_ARRAY -> stack[stackSize - 1] = NONEMPTY_INLINE_ARRAY;
+            case NONEMPTY_INLINE_ARRAY -> out.write(", ");
+            default -> throw new IllegalStateException("Value without a name or enclosing array");
+        }
+    }
+
+    private JsonWriter close(int emptyScope, int nonEmptyScope, char bracket) throws IOException {
+        int scope = peek();
+        if (scope != emptyScope && scope != nonEmptyScope) {
+            throw new IllegalStateException("Mismatched " + bracket);
+        }
+        stackSize--;
+        if (scope == nonEmptyScope) {
+            newline();
+        }
+        out.write(bracket);
+        afterClose();
+        return this;
+    }
+
+    private void afterClose() throws IOException {
+        if (stackSize == 1) {
+            out.write('\n');
+        }
+    }
+
+    private int peek() {
+        return stack[stackSize - 1];
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private void newline() throws IOException {
+        out.write('\n');
+        for (int i = 1; i < stackSize; i++) {
+            out.write(INDENT);
+        }
+    }
+
+    private void writeQuoted(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            } else if (c == '\r') {
+                replacement = "\\r";
+            } else if (c == '\t') {
+                replacement = "\\t";
+            } else if (c < 0x20) {
+                replacement = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            out.write(value, start, i - start);
+            out.write(replacement);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
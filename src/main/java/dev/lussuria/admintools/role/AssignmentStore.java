@@ -0,0 +1,377 @@
+package dev.lussuria.admintools.role;
+
+import dev.lussuria.admintools.persistence.AtomicFiles;
+import dev.lussuria.admintools.persistence.JsonReader;
+import dev.lussuria.admintools.persistence.JsonWriter;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Player role assignments on disk, split into 256 shard files by the first byte
+ * of the player UUID ({@code assignments/3f.json} holds every player whose UUID
+ * starts with {@code 3f}). Each role's members are also kept in
+ * {@code assignments/roles/<role id>.json}, so listing a role reads that one file.
+ * Nothing is held in memory except changes that have not been written yet;
+ * {@link #flush} rewrites only the shards and member files those changes touch.
+ */
+final class AssignmentStore {
+    private static final int SHARDS = 256;
+    // Marks a pending removal in the pending map.
+    private static final UUID REMOVED = new UUID(0L, 0L);
+
+    private final Path directory;
+    private final Path membersDirectory;
+    private final Map<UUID, UUID> pending = new ConcurrentHashMap<>();
+    // Serializes everything that writes or deletes files, and readers that must
+    // see files and pending changes consistently.
+    private final Object fileLock = new Object();
+
+    AssignmentStore(Path directory) {
+        this.directory = directory;
+        this.membersDirectory = directory.resolve("roles");
+    }
+
+    /**
+     * Stored role id for a player, or null. Reads at most one shard file.
+     */
+    UUID read(UUID player) throws IOException {
+        UUID change = pending.get(player);
+        if (change != null) {
+            return change == REMOVED ? null : change;
+        }
+        Path file = shardFile(shardOf(player));
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String key = player.toString();
+        try (JsonReader json = new JsonReader(Files.newBufferedReader(file))) {
+            json.beginObject();
+            while (json.hasNext()) {
+                if (key.equals(json.nextName())) {
+                    String role = json.nextStringOrNull();
+                    return role == null ? null : UUID.fromString(role);
+                }
+                json.skipValue();
+            }
+        }
+        return null;
+    }
+
+    void put(UUID player, UUID roleId) {
+        pending.put(player, roleId);
+    }
+
+    void remove(UUID player) {
+        pending.put(player, REMOVED);
+    }
+
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Drop every stored assignment, on disk and pending.
+     */
+    void clear() throws IOException {
+        synchronized (fileLock) {
+            pending.clear();
+            for (int shard = 0; shard < SHARDS; shard++) {
+                Files.deleteIfExists(shardFile(shard));
+            }
+            for (Path file : memberFiles()) {
+                Files.deleteIfExists(file);
+            }
+            Files.createDirectories(membersDirectory);
+        }
+    }
+
+    /**
+     * Build the per-role member files from the shards if they do not exist yet,
+     * for data written before they were introduced.
+     */
+    void ensureMemberIndex() throws IOException {
+        synchronized (fileLock) {
+            if (Files.isDirectory(membersDirectory)) {
+                return;
+            }
+            Map<UUID, Set<UUID>> members = new HashMap<>();
+            for (int shard = 0; shard < SHARDS; shard++) {
+                if (Files.exists(shardFile(shard))) {
+                    readShard(shard).forEach((player, roleId) ->
+                        members.computeIfAbsent(roleId, id -> new LinkedHashSet<>()).add(player));
+                }
+            }
+            // Built to the side and renamed, so a crash part way leaves no partial index.
+            Path building = directory.resolve("roles.building");
+            for (Path file : listJson(building)) {
+                Files.deleteIfExists(file);
+            }
+            Files.createDirectories(building);
+            for (Map.Entry<UUID, Set<UUID>> entry : members.entrySet()) {
+                writeMembers(building.resolve(entry.getKey() + ".json"), entry.getValue());
+            }
+            Files.move(building, membersDirectory);
+        }
+    }
+
+    /**
+     * Players assigned to {@code roleId}, with pending changes applied. Reads only
+     * that role's member file.
+     */
+    List<UUID> members(UUID roleId) throws IOException {
+        synchronized (fileLock) {
+            Set<UUID> members = readMembers(roleId);
+            for (Map.Entry<UUID, UUID> change : pending.entrySet()) {
+                if (roleId.equals(change.getValue())) {
+                    members.add(change.getKey());
+                } else {
+                    members.remove(change.getKey());
+                }
+            }
+            return new ArrayList<>(members);
+        }
+    }
+
+    /**
+     * Write pending changes into their shards and member files. Entries whose
+     * role fails {@code validRole} (deleted roles) are dropped from every shard
+     * rewritten, and those roles' member files are deleted.
+     */
+    void flush(Predicate<UUID> validRole) throws IOException {
+        synchronized (fileLock) {
+            Map<Integer, Map<UUID, UUID>> byShard = groupPending();
+            // Member files go first: if the shards are not written after them, the
+            // journal replays the same changes and applying them again is harmless.
+            writeMemberChanges(byShard, validRole);
+            writeShards(byShard, validRole);
+        }
+    }
+
+    private void writeMemberChanges(Map<Integer, Map<UUID, UUID>> byShard, Predicate<UUID> validRole) throws IOException {
+        Map<UUID, Set<UUID>> joined = new HashMap<>();
+        Map<UUID, Set<UUID>> left = new HashMap<>();
+        for (Map.Entry<Integer, Map<UUID, UUID>> entry : byShard.entrySet()) {
+            Map<UUID, UUID> stored = readShard(entry.getKey());
+            for (Map.Entry<UUID, UUID> change : entry.getValue().entrySet()) {
+                UUID before = stored.get(change.getKey());
+                UUID after = change.getValue() == REMOVED ? null : change.getValue();
+                if (before != null && !before.equals(after)) {
+                    left.computeIfAbsent(before, id -> new HashSet<>()).add(change.getKey());
+                }
+                if (after != null) {
+                    joined.computeIfAbsent(after, id -> new LinkedHashSet<>()).add(change.getKey());
+                }
+            }
+        }
+        Set<UUID> touched = new HashSet<>(joined.keySet());
+        touched.addAll(left.keySet());
+        for (UUID roleId : touched) {
+            if (!validRole.test(roleId)) {
+                continue;
+            }
+            Set<UUID> members = readMembers(roleId);
+            members.removeAll(left.getOrDefault(roleId, Set.of()));
+            members.addAll(joined.getOrDefault(roleId, Set.of()));
+            writeMembers(membersFile(roleId), members);
+        }
+        for (Path file : memberFiles()) {
+            UUID roleId = roleIdOf(file);
+            if (roleId != null && !validRole.test(roleId)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void writeShards(Map<Integer, Map<UUID, UUID>> byShard, Predicate<UUID> validRole) throws IOException {
+        for (Map.Entry<Integer, Map<UUID, UUID>> entry : byShard.entrySet()) {
+            int shard = entry.getKey();
+            Map<UUID, UUID> assignments = readShard(shard);
+            for (Map.Entry<UUID, UUID> change : entry.getValue().entrySet()) {
+                if (change.getValue() == REMOVED) {
+                    assignments.remove(change.getKey());
+                } else {
+                    assignments.put(change.getKey(), change.getValue());
+                }
+            }
+            assignments.values().removeIf(roleId -> !validRole.test(roleId));
+            writeShard(shard, assignments);
+            for (Map.Entry<UUID, UUID> change : entry.getValue().entrySet()) {
+                // Keep changes made while this shard was being written.
+                pending.remove(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    /**
+     * Visit every assignment, shard by shard, with pending changes applied. The
+     * visiting order is stable while the assignments do not change.
+     */
+    void forEach(BiConsumer<UUID, UUID> visitor) throws IOException {
+        synchronized (fileLock) {
+            forEachLocked(visitor);
+        }
+    }
+
+    private void forEachLocked(BiConsumer<UUID, UUID> visitor) throws IOException {
+        Map<Integer, Map<UUID, UUID>> byShard = groupPending();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            Map<UUID, UUID> changes = byShard.get(shard);
+            if (changes == null && !Files.exists(shardFile(shard))) {
+                continue;
+            }
+            Map<UUID, UUID> assignments = readShard(shard);
+            if (changes != null) {
+                for (Map.Entry<UUID, UUID> change : changes.entrySet()) {
+                    if (change.getValue() == REMOVED) {
+                        assignments.remove(change.getKey());
+                    } else {
+                        assignments.put(change.getKey(), change.getValue());
+                    }
+                }
+            }
+            assignments.forEach(visitor);
+        }
+    }
+
+    private Map<Integer, Map<UUID, UUID>> groupPending() {
+        Map<Integer, Map<UUID, UUID>> byShard = new HashMap<>();
+        for (Map.Entry<UUID, UUID> entry : pending.entrySet()) {
+            byShard.computeIfAbsent(shardOf(entry.getKey()), shard -> new HashMap<>())
+                .put(entry.getKey(), entry.getValue());
+        }
+        return byShard;
+    }
+
+    private Map<UUID, UUID> readShard(int shard) throws IOException {
+        Map<UUID, UUID> assignments = new LinkedHashMap<>();
+        Path file = shardFile(shard);
+        if (!Files.exists(file)) {
+            return assignments;
+        }
+        try (JsonReader json = new JsonReader(Files.newBufferedReader(file))) {
+            json.beginObject();
+            while (json.hasNext()) {
+                String player = json.nextName();
+                String role = json.nextStringOrNull();
+                try {
+                    if (role != null) {
+                        assignments.put(UUID.fromString(player), UUID.fromString(role));
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // Skip malformed UUIDs from hand-edited shards.
+                }
+            }
+            json.endObject();
+        }
+        return assignments;
+    }
+
+    private void writeShard(int shard, Map<UUID, UUID> assignments) throws IOException {
+        Path file = shardFile(shard);
+        if (assignments.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        List<Map.Entry<UUID, UUID>> entries = new ArrayList<>(assignments.entrySet());
+        AtomicFiles.write(file, writer -> {
+            JsonWriter json = new JsonWriter(writer);
+            json.beginObject();
+            for (Map.Entry<UUID, UUID> entry : entries) {
+                json.name(entry.getKey().toString()).value(entry.getValue().toString());
+            }
+            json.endObject();
+        });
+    }
+
+    private Set<UUID> readMembers(UUID roleId) throws IOException {
+        Set<UUID> members = new LinkedHashSet<>();
+        Path file = membersFile(roleId);
+        if (!Files.exists(file)) {
+            return members;
+        }
+        try (JsonReader json = new JsonReader(Files.newBufferedReader(file))) {
+            json.beginArray();
+            while (json.hasNext()) {
+                String player = json.nextStringOrNull();
+                try {
+                    if (player != null) {
+                        members.add(UUID.fromString(player));
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // Skip malformed UUIDs from hand-edited files.
+                }
+            }
+            json.endArray();
+        }
+        return members;
+    }
+
+    private static void writeMembers(Path file, Set<UUID> members) throws IOException {
+        if (members.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        List<UUID> players = new ArrayList<>(members);
+        AtomicFiles.write(file, writer -> {
+            JsonWriter json = new JsonWriter(writer);
+            json.beginArray();
+            for (UUID player : players) {
+                json.value(player.toString());
+            }
+            json.endArray();
+        });
+    }
+
+    private List<Path> memberFiles() throws IOException {
+        return listJson(membersDirectory);
+    }
+
+    private static List<Path> listJson(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private Path membersFile(UUID roleId) {
+        return membersDirectory.resolve(roleId + ".json");
+    }
+
+    private static UUID roleIdOf(Path membersFile) {
+        String name = membersFile.getFileName().toString();
+        try {
+            return UUID.fromString(name.substring(0, name.length() - ".json".length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Path shardFile(int shard) {
+        return directory.resolve(String.format("%02x.json", shard));
+    }
+
+    private static int shardOf(UUID player) {
+        return (int) (player.getMostSignificantBits() >>> 56);
+    }
+}
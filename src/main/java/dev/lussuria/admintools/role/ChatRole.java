@@ -1,10 +1,14 @@
 package dev.lussuria.admintools.role;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class ChatRole {
+    // Shared by all roles, so no two edits ever produce the same version.
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+
     private UUID id;
     private String name;
     private String displayName;
@@ -13,6 +17,7 @@ public final class ChatRole {
     private boolean italic;
     private int priority;
     private final List<String> groups;
+    private volatile int version;
 
     public ChatRole() {
         this.id = UUID.randomUUID();
@@ -22,7 +27,7 @@ public final class ChatRole {
         this.bold = false;
         this.italic = false;
         this.priority = 100;
-        this.groups = new ArrayList<>();
+        this.groups = new CopyOnWriteArrayList<>();
     }
 
     public ChatRole(String name, String displayName, String color, int priority) {
@@ -33,7 +38,7 @@ public final class ChatRole {
         this.bold = false;
         this.italic = false;
         this.priority = priority;
-        this.groups = new ArrayList<>();
+        this.groups = new CopyOnWriteArrayList<>();
     }
 
     public UUID getId() {
@@ -50,6 +55,7 @@ public final class ChatRole {
 
     public void setName(String name) {
         this.name = name;
+        version = VERSIONS.incrementAndGet();
     }
 
     public String getDisplayName() {
@@ -58,6 +64,7 @@ public final class ChatRole {
 
     public void setDisplayName(String displayName) {
         this.displayName = displayName;
+        version = VERSIONS.incrementAndGet();
     }
 
     public String getColor() {
@@ -66,6 +73,7 @@ public final class ChatRole {
 
     public void setColor(String color) {
         this.color = color;
+        version = VERSIONS.incrementAndGet();
     }
 
     public boolean isBold() {
@@ -74,6 +82,7 @@ public final class ChatRole {
 
     public void setBold(boolean bold) {
         this.bold = bold;
+        version = VERSIONS.incrementAndGet();
     }
 
     public boolean isItalic() {
@@ -82,6 +91,7 @@ public final class ChatRole {
 
     public void setItalic(boolean italic) {
         this.italic = italic;
+        version = VERSIONS.incrementAndGet();
     }
 
     public int getPriority() {
@@ -90,9 +100,32 @@ public final class ChatRole {
 
     public void setPriority(int priority) {
         this.priority = priority;
+        version = VERSIONS.incrementAndGet();
     }
 
     public List<String> getGroups() {
         return groups;
     }
+
+    /**
+     * Changes whenever a displayed field is set, so derived components can be cached.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Detached copy of all fields, safe to serialize off-thread. Roles returned by
+     * {@link RoleManager} are shared with readers; edit a copy and publish it with
+     * {@link RoleManager#updateRole(ChatRole)} instead of changing them in place.
+     */
+    public ChatRole copy() {
+        ChatRole copy = new ChatRole(name, displayName, color, priority);
+        copy.setId(id);
+        copy.setBold(bold);
+        copy.setItalic(italic);
+        copy.getGroups().addAll(groups);
+        copy.version = version;
+        return copy;
+    }
 }
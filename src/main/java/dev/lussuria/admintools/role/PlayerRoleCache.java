@@ -0,0 +1,130 @@
+package dev.lussuria.admintools.role;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.permissions.PermissionsModule;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolved chat role, prebuilt prefix and permission groups per online player, so
+ * chat formatting skips the permissions lookup and role resolution. Entries are
+ * filled on join, dropped on disconnect or when the player's assignment or groups
+ * change, and recomputed lazily once {@link RoleManager#getGeneration()} moves past them.
+ */
+public final class PlayerRoleCache {
+    private static final Entry EMPTY = new Entry(null, null, Set.of(), -1L);
+
+    private final RoleManager roleManager;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<UUID, Prefix> prefixes = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a resolution that saw an older value is not installed.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PlayerRoleCache(RoleManager roleManager) {
+        this.roleManager = roleManager;
+        roleManager.setAssignmentListener(this::invalidate);
+        roleManager.setRoleDeletedListener(prefixes::remove);
+    }
+
+    private record Prefix(int version, Message message) {
+    }
+
+    /**
+     * @param groups the player's permission groups, upper-cased
+     */
+    public record Entry(ChatRole role, Message prefix, Set<String> groups, long generation) {
+    }
+
+    public Entry get(UUID playerUuid) {
+        if (playerUuid == null) {
+            return EMPTY;
+        }
+        Entry entry = entries.get(playerUuid);
+        if (entry != null && entry.generation == roleManager.getGeneration()) {
+            return entry;
+        }
+        return refresh(playerUuid);
+    }
+
+    /**
+     * Resolve the player's role now, e.g. on join so the first chat message is a cache hit.
+     */
+    public Entry refresh(UUID playerUuid) {
+        if (playerUuid == null) {
+            return EMPTY;
+        }
+        // Resolve without holding a map lock, then install only if no invalidation
+        // happened meanwhile. The check runs inside compute() so it serialises with the
+        // remove() in invalidate() and a stale entry is never visible.
+        long seen = invalidations.get();
+        Entry resolved = resolve(playerUuid);
+        entries.compute(playerUuid, (uuid, current) -> invalidations.get() == seen ? resolved : current);
+        return resolved;
+    }
+
+    public void invalidate(UUID playerUuid) {
+        if (playerUuid != null) {
+            invalidations.incrementAndGet();
+            entries.remove(playerUuid);
+        }
+    }
+
+    private Entry resolve(UUID playerUuid) {
+        long generation = roleManager.getGeneration();
+        Set<String> groups = null;
+        try {
+            PermissionsModule permissions = PermissionsModule.get();
+            if (permissions != null) {
+                groups = permissions.getGroupsForUser(playerUuid);
+            }
+        } catch (Exception ignored) {
+            // Best-effort; fall back to explicit assignments only.
+        }
+        ChatRole role = roleManager.resolveRole(playerUuid, groups);
+        return new Entry(role, role == null ? null : prefixFor(role), normalize(groups), generation);
+    }
+
+    private static Set<String> normalize(Set<String> groups) {
+        if (groups == null || groups.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> upper = new HashSet<>();
+        for (String group : groups) {
+            if (group != null && !group.isBlank()) {
+                upper.add(group.toUpperCase(Locale.ROOT));
+            }
+        }
+        return Set.copyOf(upper);
+    }
+
+    /**
+     * Prefix component shared by every player with this role, rebuilt only when the role's version changes.
+     */
+    private Message prefixFor(ChatRole role) {
+        Prefix cached = prefixes.get(role.getId());
+        int version = role.getVersion();
+        if (cached != null && cached.version == version) {
+            return cached.message;
+        }
+        Message message = buildPrefix(role);
+        prefixes.put(role.getId(), new Prefix(version, message));
+        return message;
+    }
+
+    private static Message buildPrefix(ChatRole role) {
+        Message prefix = Message.raw(role.getDisplayName() + " ").color(role.getColor());
+        if (role.isBold()) {
+            prefix = prefix.bold(true);
+        }
+        if (role.isItalic()) {
+            prefix = prefix.italic(true);
+        }
+        return prefix;
+    }
+}
@@ -1,66 +1,217 @@
 package dev.lussuria.admintools.role;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import dev.lussuria.admintools.config.AdminToolsConfig;
+import dev.lussuria.admintools.persistence.AtomicFiles;
+import dev.lussuria.admintools.persistence.BinarySnapshot;
+import dev.lussuria.admintools.persistence.ChangeJournal;
+import dev.lussuria.admintools.persistence.DebouncedSaver;
+import dev.lussuria.admintools.persistence.JsonReader;
+import dev.lussuria.admintools.persistence.JsonWriter;
 
-import java.io.BufferedWriter;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public final class RoleManager {
+    private static final String OP_PUT_ROLE = "putRole";
+    private static final String OP_DELETE_ROLE = "deleteRole";
+    private static final String OP_ASSIGN = "assign";
+    private static final String OP_UNASSIGN = "unassign";
+    private static final String OP_CLEAR_ASSIGNMENTS = "clearAssignments";
+    private static final String BINARY_KIND = "roles";
+    private static final int MAX_NORMALIZED_GROUPS = 4096;
+    private static final int ASSIGNMENT_STRIPES = 16;
+    // Value in loadedAssignments for a loaded player without an assignment.
+    private static final int NO_ROLE = Integer.MAX_VALUE;
+
     private final HytaleLogger logger;
     private final Path dataFile;
-    private final Map<UUID, ChatRole> roles = new ConcurrentHashMap<>();
-    private final Map<String, UUID> rolesByName = new ConcurrentHashMap<>();
-    private final Map<UUID, UUID> assignedRoleByPlayer = new ConcurrentHashMap<>();
+    private final Path binaryFile;
+    private final Path exportFile;
+    private final boolean binary;
+    private final boolean compress;
+    private final DebouncedSaver saver;
+    private final ChangeJournal journal;
+    private final int compactThreshold;
+    // Serialises writers; readers only read `state`.
+    private final Object stateLock = new Object();
+    // Set when the snapshot or journal could not be read completely; the files are
+    // then left alone so a restart can still recover what was not loaded.
+    private volatile boolean loadFailed;
+    private volatile RoleSnapshot state = RoleSnapshot.EMPTY;
+    private final AssignmentStore assignments;
+    // Online players only: player -> role index in the current snapshot, or NO_ROLE.
+    private final UuidIntMap loadedAssignments = new UuidIntMap(ASSIGNMENT_STRIPES);
+    // Bumped under stateLock whenever stored assignments change, so a shard read
+    // made outside the lock can tell whether it is still current.
+    private volatile long assignmentChanges;
+    private final Map<String, String> normalizedGroups = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Consumer<UUID> assignmentListener;
+    private volatile Consumer<UUID> roleDeletedListener;
 
-    public RoleManager(HytaleLogger logger, Path dataDirectory) {
+    public RoleManager(HytaleLogger logger, Path dataDirectory, AdminToolsConfig.Storage storage) {
         this.logger = logger;
         this.dataFile = dataDirectory.resolve("roles.json");
+        this.binaryFile = dataDirectory.resolve("roles.bin");
+        this.exportFile = dataDirectory.resolve("roles.export.json");
+        this.binary = "binary".equalsIgnoreCase(storage.format);
+        this.compress = storage.compress;
+        this.saver = new DebouncedSaver(logger, "roles", storage.saveDelayMillis, this::writeSnapshot);
+        this.journal = storage.journalEnabled ? new ChangeJournal(dataDirectory.resolve("roles.journal")) : null;
+        this.compactThreshold = Math.max(1, storage.journalCompactThreshold);
+        this.assignments = new AssignmentStore(dataDirectory.resolve("assignments"));
     }
 
     // === CRUD ===
 
     public ChatRole createRole(String name, String displayName, String color, int priority) {
         ChatRole role = new ChatRole(name, displayName, color, priority);
-        roles.put(role.getId(), role);
-        rolesByName.put(name.toLowerCase(Locale.ROOT), role.getId());
+        synchronized (stateLock) {
+            RoleSnapshot.Builder next = state.toBuilder();
+            next.put(role);
+            record(encodeRole(role));
+            publish(next.build());
+        }
         return role;
     }
 
+    /**
+     * Replace the role with the same id by {@code role}, an edited {@link ChatRole#copy()}.
+     *
+     * @return false if the role was deleted in the meantime
+     */
+    public boolean updateRole(ChatRole role) {
+        synchronized (stateLock) {
+            if (!state.roles.containsKey(role.getId())) {
+                return false;
+            }
+            RoleSnapshot.Builder next = state.toBuilder();
+            next.put(role);
+            record(encodeRole(role));
+            publish(next.build());
+            return true;
+        }
+    }
+
     public boolean deleteRole(String name) {
-        UUID id = rolesByName.remove(name.toLowerCase(Locale.ROOT));
-        if (id == null) {
-            return false;
+        synchronized (stateLock) {
+            ChatRole role = getRole(name);
+            if (role == null) {
+                return false;
+            }
+            RoleSnapshot.Builder next = state.toBuilder();
+            Integer index = next.remove(role.getId());
+            record(OP_DELETE_ROLE, role.getId().toString());
+            publish(next.build());
+            if (index != null) {
+                unloadRoleIndex(index);
+            }
+            notifyRoleDeleted(role.getId());
+            return true;
         }
-        roles.remove(id);
-        assignedRoleByPlayer.entrySet().removeIf(entry -> id.equals(entry.getValue()));
-        return true;
     }
 
-    public ChatRole getRole(String name) {
-        UUID id = rolesByName.get(name.toLowerCase(Locale.ROOT));
-        if (id == null) {
+    /**
+     * Loaded players of a removed role fall back to no assignment, before the index
+     * can be handed to another role. Their stored entries are ignored from now on and
+     * dropped when their shard is next rewritten.
+     */
+    private void unloadRoleIndex(int index) {
+        List<UUID> affected = new ArrayList<>();
+        loadedAssignments.forEach((msb, lsb, value) -> {
+            if (value == index) {
+                affected.add(new UUID(msb, lsb));
+            }
+        });
+        for (UUID player : affected) {
+            loadedAssignments.put(player, NO_ROLE);
+        }
+    }
+
+    /**
+     * Make {@code next} visible to readers. Called with {@code stateLock} held.
+     */
+    private void publish(RoleSnapshot next) {
+        state = next;
+        generation.incrementAndGet();
+    }
+
+    private void assign(UUID playerUuid, UUID roleId) {
+        assignmentChanges++;
+        assignments.put(playerUuid, roleId);
+        if (loadedAssignments.get(playerUuid) != UuidIntMap.MISSING) {
+            Integer index = state.indexByRoleId.get(roleId);
+            loadedAssignments.put(playerUuid, index == null ? NO_ROLE : index);
+        }
+    }
+
+    private void unassign(UUID playerUuid) {
+        assignmentChanges++;
+        assignments.remove(playerUuid);
+        if (loadedAssignments.get(playerUuid) != UuidIntMap.MISSING) {
+            loadedAssignments.put(playerUuid, NO_ROLE);
+        }
+    }
+
+    /**
+     * Stored role of a player, or null if none or the role no longer exists.
+     */
+    private UUID readStored(UUID playerUuid, RoleSnapshot snapshot) {
+        try {
+            UUID roleId = assignments.read(playerUuid);
+            return roleId != null && snapshot.roles.containsKey(roleId) ? roleId : null;
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Failed to read role assignment for %s: %s", playerUuid, e.getMessage());
             return null;
         }
-        return roles.get(id);
+    }
+
+    public ChatRole getRole(String name) {
+        return state.rolesByName.get(name.toLowerCase(Locale.ROOT));
     }
 
     public Collection<ChatRole> getAllRoles() {
-        return roles.values();
+        return state.roles.values();
+    }
+
+    /**
+     * Roles in priority order, then by name, as of the last change.
+     */
+    public List<ChatRole> getRolesByPriority() {
+        return state.byPriority;
     }
 
     public boolean roleExists(String name) {
-        return rolesByName.containsKey(name.toLowerCase(Locale.ROOT));
+        return state.rolesByName.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Role names starting with {@code prefix}, ignoring case.
+     */
+    public List<String> completeRoleNames(String prefix, int limit) {
+        return state.names.complete(prefix, limit);
+    }
+
+    /**
+     * Close matches for a role name that was not found.
+     */
+    public List<String> suggestRoleNames(String name, int limit) {
+        return state.names.suggest(name, limit);
     }
 
     public boolean assignRole(UUID playerUuid, String roleName) {
@@ -71,7 +222,11 @@ public final class RoleManager {
         if (role == null) {
             return false;
         }
-        assignedRoleByPlayer.put(playerUuid, role.getId());
+        synchronized (stateLock) {
+            assign(playerUuid, role.getId());
+            record(OP_ASSIGN, playerUuid.toString(), role.getId().toString());
+        }
+        notifyAssignmentChanged(playerUuid);
         return true;
     }
 
@@ -79,327 +234,692 @@ public final class RoleManager {
         if (playerUuid == null) {
             return false;
         }
-        return assignedRoleByPlayer.remove(playerUuid) != null;
+        while (true) {
+            // The shard of an offline player is read before taking the lock.
+            long seen = assignmentChanges;
+            boolean stored = loadedAssignments.get(playerUuid) == UuidIntMap.MISSING
+                && readStored(playerUuid, state) != null;
+            synchronized (stateLock) {
+                int index = loadedAssignments.get(playerUuid);
+                if (index == UuidIntMap.MISSING && assignmentChanges != seen) {
+                    continue;
+                }
+                boolean assigned = index == UuidIntMap.MISSING
+                    ? stored
+                    : index != NO_ROLE && state.roleIdAt(index) != null;
+                if (!assigned) {
+                    return false;
+                }
+                unassign(playerUuid);
+                record(OP_UNASSIGN, playerUuid.toString());
+            }
+            notifyAssignmentChanged(playerUuid);
+            return true;
+        }
     }
 
+    /**
+     * Assigned role of a player. Online players are answered from memory; anyone
+     * else costs a read of their assignment shard on the calling thread.
+     */
     public ChatRole getAssignedRole(UUID playerUuid) {
         if (playerUuid == null) {
             return null;
         }
-        UUID roleId = assignedRoleByPlayer.get(playerUuid);
-        if (roleId == null) {
-            return null;
+        RoleSnapshot snapshot = state;
+        int index = loadedAssignments.get(playerUuid);
+        UUID roleId = index == UuidIntMap.MISSING ? readStored(playerUuid, snapshot) : loadedRoleId(index, snapshot);
+        return roleId == null ? null : snapshot.roles.get(roleId);
+    }
+
+    private static UUID loadedRoleId(int index, RoleSnapshot snapshot) {
+        return index == NO_ROLE ? null : snapshot.roleIdAt(index);
+    }
+
+    /**
+     * Keep the player's assignment in memory until {@link #unloadAssignment}; call on join.
+     * The shard is read without holding the lock, and read again if an assignment
+     * changed meanwhile.
+     */
+    public void loadAssignment(UUID playerUuid) {
+        if (playerUuid == null) {
+            return;
+        }
+        while (loadedAssignments.get(playerUuid) == UuidIntMap.MISSING) {
+            long seen = assignmentChanges;
+            UUID roleId = readStored(playerUuid, state);
+            synchronized (stateLock) {
+                if (loadedAssignments.get(playerUuid) != UuidIntMap.MISSING) {
+                    return;
+                }
+                if (assignmentChanges == seen) {
+                    Integer index = roleId == null ? null : state.indexByRoleId.get(roleId);
+                    loadedAssignments.put(playerUuid, index == null ? NO_ROLE : index);
+                    return;
+                }
+            }
+        }
+    }
+
+    private int storedIndex(UUID playerUuid) {
+        RoleSnapshot snapshot = state;
+        UUID roleId = readStored(playerUuid, snapshot);
+        Integer index = roleId == null ? null : snapshot.indexByRoleId.get(roleId);
+        return index == null ? NO_ROLE : index;
+    }
+
+    public void unloadAssignment(UUID playerUuid) {
+        if (playerUuid == null) {
+            return;
+        }
+        synchronized (stateLock) {
+            loadedAssignments.remove(playerUuid);
         }
-        ChatRole role = roles.get(roleId);
+    }
+
+    public record MemberPage(int total, List<UUID> players) {
+    }
+
+    /**
+     * Players explicitly assigned to a role, starting at {@code offset}, plus the
+     * total count. Reads only this role's member file. Returns null if the role
+     * does not exist.
+     */
+    public MemberPage getMembers(String roleName, int offset, int limit) {
+        ChatRole role = getRole(roleName);
         if (role == null) {
-            assignedRoleByPlayer.remove(playerUuid);
+            return null;
         }
-        return role;
+        List<UUID> members;
+        try {
+            members = assignments.members(role.getId());
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Failed to list role members: %s", e.getMessage());
+            return new MemberPage(0, List.of());
+        }
+        int from = Math.min(members.size(), Math.max(0, offset));
+        int to = (int) Math.min(members.size(), (long) from + Math.max(0, limit));
+        return new MemberPage(members.size(), new ArrayList<>(members.subList(from, to)));
     }
 
     // === Role Resolution ===
 
+    /**
+     * Resolve the chat role for a player: an explicit assignment wins, otherwise the
+     * best-priority role mapped to any of the player's groups. Runs per chat message,
+     * so it reads one published snapshot and group matching is a lookup in its
+     * prebuilt group index.
+     */
     public ChatRole resolveRole(UUID playerUuid, Set<String> playerGroups) {
-        ChatRole assigned = getAssignedRole(playerUuid);
+        RoleSnapshot snapshot = state;
+        // Only loaded players have an explicit role here; until the join load has
+        // run, a player resolves by groups alone rather than reading from disk.
+        int loaded = playerUuid == null ? UuidIntMap.MISSING : loadedAssignments.get(playerUuid);
+        UUID assignedId = loaded == UuidIntMap.MISSING ? null : loadedRoleId(loaded, snapshot);
+        ChatRole assigned = assignedId == null ? null : snapshot.roles.get(assignedId);
         if (assigned != null) {
             return assigned;
         }
         if (playerGroups == null || playerGroups.isEmpty()) {
             return null;
         }
-        Set<String> upperGroups = new HashSet<>();
-        for (String g : playerGroups) {
-            if (g != null && !g.isBlank()) {
-                upperGroups.add(g.toUpperCase(Locale.ROOT));
-            }
+        Map<String, ChatRole> index = snapshot.roleByGroup;
+        if (index.isEmpty()) {
+            return null;
         }
         ChatRole best = null;
-        for (ChatRole role : roles.values()) {
-            for (String roleGroup : role.getGroups()) {
-                if (roleGroup != null && upperGroups.contains(roleGroup.toUpperCase(Locale.ROOT))) {
-                    if (best == null || role.getPriority() < best.getPriority()) {
-                        best = role;
-                    }
-                    break;
-                }
+        for (String group : playerGroups) {
+            if (group == null) {
+                continue;
+            }
+            ChatRole role = index.get(normalizeGroup(group));
+            if (role != null && (best == null || role.getPriority() < best.getPriority())) {
+                best = role;
             }
         }
         return best;
     }
 
+    /**
+     * Incremented whenever role definitions change; anything derived from a resolved
+     * role is stale once this moves.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Called with the player's UUID after their explicit assignment changes.
+     */
+    public void setAssignmentListener(Consumer<UUID> listener) {
+        this.assignmentListener = listener;
+    }
+
+    /**
+     * Called with the role's id after it is deleted.
+     */
+    public void setRoleDeletedListener(Consumer<UUID> listener) {
+        this.roleDeletedListener = listener;
+    }
+
+    private void notifyRoleDeleted(UUID roleId) {
+        Consumer<UUID> listener = roleDeletedListener;
+        if (listener != null) {
+            listener.accept(roleId);
+        }
+    }
+
+    private void notifyAssignmentChanged(UUID playerUuid) {
+        Consumer<UUID> listener = assignmentListener;
+        if (listener != null) {
+            listener.accept(playerUuid);
+        }
+    }
+
+    private String normalizeGroup(String group) {
+        String normalized = normalizedGroups.get(group);
+        if (normalized == null) {
+            normalized = group.toUpperCase(Locale.ROOT);
+            if (normalizedGroups.size() >= MAX_NORMALIZED_GROUPS) {
+                normalizedGroups.clear();
+            }
+            normalizedGroups.put(group, normalized);
+        }
+        return normalized;
+    }
+
     // === Persistence ===
 
+    /**
+     * Persist recent changes. With the journal enabled every edit is already on disk,
+     * so this only schedules a compaction once enough entries have piled up.
+     */
     public void save() {
-        try {
-            Files.createDirectories(dataFile.getParent());
-            try (BufferedWriter writer = Files.newBufferedWriter(dataFile)) {
-                writer.write("[\n");
-                boolean first = true;
-                for (ChatRole r : roles.values()) {
-                    if (!first) {
-                        writer.write(",\n");
-                    }
-                    first = false;
-                    writer.write("  {\n");
-                    writer.write("    \"Id\": \"" + r.getId() + "\",\n");
-                    writer.write("    \"Name\": \"" + escapeJson(r.getName()) + "\",\n");
-                    writer.write("    \"DisplayName\": \"" + escapeJson(r.getDisplayName()) + "\",\n");
-                    writer.write("    \"Color\": \"" + escapeJson(r.getColor()) + "\",\n");
-                    writer.write("    \"Bold\": " + r.isBold() + ",\n");
-                    writer.write("    \"Italic\": " + r.isItalic() + ",\n");
-                    writer.write("    \"Priority\": " + r.getPriority() + ",\n");
-                    writer.write("    \"Groups\": [");
-                    for (int i = 0; i < r.getGroups().size(); i++) {
-                        if (i > 0) {
-                            writer.write(", ");
-                        }
-                        writer.write("\"" + escapeJson(r.getGroups().get(i)) + "\"");
-                    }
-                    writer.write("],\n");
-                    writer.write("    \"AssignedPlayers\": [");
-                    boolean firstAssigned = true;
-                    for (Map.Entry<UUID, UUID> entry : assignedRoleByPlayer.entrySet()) {
-                        if (!r.getId().equals(entry.getValue())) {
-                            continue;
-                        }
-                        if (!firstAssigned) {
-                            writer.write(", ");
-                        }
-                        firstAssigned = false;
-                        writer.write("\"" + entry.getKey() + "\"");
-                    }
-                    writer.write("]\n");
-                    writer.write("  }");
-                }
-                writer.write("\n]\n");
+        if (journal == null || journal.size() >= compactThreshold) {
+            saver.markDirty();
+        }
+    }
+
+    public void flush() {
+        saver.flush();
+    }
+
+    public void shutdown() {
+        if (journal == null || journal.size() > 0 || assignments.hasPending()) {
+            saver.markDirty();
+        }
+        saver.shutdown();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.at(Level.WARNING).log("Failed to close role journal: %s", e.getMessage());
             }
-        } catch (Exception e) {
-            logger.at(Level.WARNING).log("Failed to save roles: %s", e.getMessage());
         }
     }
 
-    public void load() {
-        if (!Files.exists(dataFile)) {
+    private void record(String... fields) {
+        if (journal == null) {
             return;
         }
         try {
-            roles.clear();
-            rolesByName.clear();
-            assignedRoleByPlayer.clear();
-            String content = Files.readString(dataFile).trim();
-            if (content.isEmpty() || content.equals("[]")) {
-                return;
-            }
-            parseRolesJson(content);
-        } catch (Exception e) {
-            logger.at(Level.WARNING).log("Failed to load roles: %s", e.getMessage());
+            journal.append(fields);
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Failed to journal role change, falling back to a full save: %s", e.getMessage());
+            saver.markDirty();
         }
     }
 
-    private void parseRolesJson(String json) {
-        int depth = 0;
-        int objectStart = -1;
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-            if (c == '{') {
-                if (depth == 0) {
-                    objectStart = i;
-                }
-                depth++;
-            } else if (c == '}') {
-                depth--;
-                if (depth == 0 && objectStart >= 0) {
-                    String objectJson = json.substring(objectStart, i + 1);
-                    parseRoleObject(objectJson);
-                    objectStart = -1;
-                }
+    private void writeSnapshot() throws IOException {
+        if (loadFailed) {
+            return;
+        }
+        List<ChatRole> snapshot = new ArrayList<>();
+        long seq;
+        synchronized (stateLock) {
+            seq = journal == null ? 0L : journal.rollOver();
+            for (ChatRole role : state.roles.values()) {
+                snapshot.add(role.copy());
             }
         }
+        // Shards go first: once the role snapshot covers this journal sequence,
+        // replay no longer restores the assignments it contains.
+        assignments.flush(roleId -> state.roles.containsKey(roleId));
+        if (binary) {
+            writeBinary(binaryFile, seq, snapshot);
+            Files.deleteIfExists(dataFile);
+        } else {
+            writeJson(dataFile, seq, snapshot, null);
+            Files.deleteIfExists(binaryFile);
+        }
+        if (journal != null) {
+            journal.discardRolledOver();
+        }
     }
 
-    private void parseRoleObject(String json) {
-        try {
-            ChatRole role = new ChatRole();
-            String id = extractStringField(json, "Id");
-            if (id != null && !id.isEmpty()) {
-                role.setId(UUID.fromString(id));
-            }
-            String name = extractStringField(json, "Name");
-            if (name != null) {
-                role.setName(name);
-            }
-            String displayName = extractStringField(json, "DisplayName");
-            if (displayName != null) {
-                role.setDisplayName(displayName);
+    /**
+     * Load role definitions. Assignments stay in their shards until players join;
+     * assignments found in an older single-file snapshot are moved into the shards.
+     * <p>
+     * The new state is built off to the side and published in one step, so this is
+     * safe on a live server: chat keeps resolving against the previous roles until
+     * the reload is complete.
+     */
+    public void load() {
+        synchronized (stateLock) {
+            loadFailed = false;
+            RoleSnapshot.Builder next = new RoleSnapshot.Builder();
+            long snapshotSeq = 0L;
+            int[] migrated = {0};
+            BiConsumer<UUID, UUID> legacyAssignment = (player, roleId) -> {
+                assignments.put(player, roleId);
+                migrated[0]++;
+            };
+            Path preferred = binary ? binaryFile : dataFile;
+            Path source = Files.exists(preferred) ? preferred : binary ? dataFile : binaryFile;
+            if (Files.exists(source)) {
+                try {
+                    snapshotSeq = source == binaryFile
+                        ? readBinary(source, next::put, legacyAssignment)
+                        : readJson(source, next::put, legacyAssignment);
+                } catch (Exception e) {
+                    loadFailed = true;
+                    logger.at(Level.WARNING).log("Failed to load roles, %s will not be overwritten: %s", source, e.getMessage());
+                }
+                if (source != preferred) {
+                    // Storage format changed; rewrite the snapshot in the configured one.
+                    saver.markDirty();
+                }
             }
-            String color = extractStringField(json, "Color");
-            if (color != null && !color.isEmpty()) {
-                role.setColor(color);
+            try {
+                assignments.ensureMemberIndex();
+            } catch (IOException e) {
+                logger.at(Level.WARNING).log("Failed to build the role member index: %s", e.getMessage());
             }
-            role.setBold(extractBooleanField(json, "Bold"));
-            role.setItalic(extractBooleanField(json, "Italic"));
-            int priority = extractIntField(json, "Priority");
-            if (priority > 0) {
-                role.setPriority(priority);
+            if (migrated[0] > 0) {
+                logger.at(Level.INFO).log("Moving %s role assignments to per-player storage", migrated[0]);
+                saver.markDirty();
             }
-            List<String> groups = extractStringArray(json, "Groups");
-            role.getGroups().addAll(groups);
-
-            roles.put(role.getId(), role);
-            rolesByName.put(role.getName().toLowerCase(Locale.ROOT), role.getId());
-
-            List<String> assignedPlayers = extractStringArray(json, "AssignedPlayers");
-            for (String player : assignedPlayers) {
+            if (journal != null) {
                 try {
-                    assignedRoleByPlayer.put(UUID.fromString(player), role.getId());
-                } catch (IllegalArgumentException ignored) {
-                    // Skip malformed UUIDs from old/bad data.
+                    journal.replay(snapshotSeq, entry -> applyJournalEntry(next, entry));
+                    if (journal.size() >= compactThreshold) {
+                        saver.markDirty();
+                    }
+                } catch (Exception e) {
+                    loadFailed = true;
+                    logger.at(Level.WARNING).log("Failed to replay role journal, it will not be compacted: %s", e.getMessage());
                 }
             }
-        } catch (Exception e) {
-            logger.at(Level.WARNING).log("Failed to parse role entry: %s", e.getMessage());
+            assignmentChanges++;
+            publish(next.build());
+            reloadLoadedAssignments();
         }
     }
 
-    private String extractStringField(String json, String key) {
-        String pattern = "\"" + key + "\"";
-        int idx = json.indexOf(pattern);
-        if (idx < 0) {
-            return null;
-        }
-        int colonIdx = json.indexOf(':', idx + pattern.length());
-        if (colonIdx < 0) {
-            return null;
+    /**
+     * Role indices are per snapshot, so players already online are re-read after a reload.
+     */
+    private void reloadLoadedAssignments() {
+        List<UUID> loaded = new ArrayList<>();
+        loadedAssignments.forEach((msb, lsb, value) -> loaded.add(new UUID(msb, lsb)));
+        for (UUID player : loaded) {
+            loadedAssignments.put(player, storedIndex(player));
         }
-        int quoteStart = json.indexOf('"', colonIdx + 1);
-        if (quoteStart < 0) {
-            return null;
-        }
-        int quoteEnd = findClosingQuote(json, quoteStart + 1);
-        if (quoteEnd < 0) {
-            return null;
-        }
-        return unescapeJson(json.substring(quoteStart + 1, quoteEnd));
     }
 
-    private int extractIntField(String json, String key) {
-        String pattern = "\"" + key + "\"";
-        int idx = json.indexOf(pattern);
-        if (idx < 0) {
-            return 0;
-        }
-        int colonIdx = json.indexOf(':', idx + pattern.length());
-        if (colonIdx < 0) {
-            return 0;
-        }
-        int start = colonIdx + 1;
-        while (start < json.length() && Character.isWhitespace(json.charAt(start))) {
-            start++;
-        }
-        int end = start;
-        while (end < json.length()) {
-            char c = json.charAt(end);
-            if (c == ',' || c == '}' || c == ']' || c == '\n') {
-                break;
+    /**
+     * Write all roles and assignments to {@code roles.export.json} for hand editing.
+     */
+    public boolean exportJson() {
+        List<ChatRole> snapshot = new ArrayList<>();
+        synchronized (stateLock) {
+            for (ChatRole role : state.roles.values()) {
+                snapshot.add(role.copy());
             }
-            end++;
         }
+        RoleSnapshot current = state;
+        Map<UUID, List<UUID>> assignedByRole = new HashMap<>();
         try {
-            return Integer.parseInt(json.substring(start, end).trim());
-        } catch (NumberFormatException e) {
-            return 0;
+            assignments.forEach((player, roleId) -> {
+                if (current.roles.containsKey(roleId)) {
+                    assignedByRole.computeIfAbsent(roleId, id -> new ArrayList<>()).add(player);
+                }
+            });
+            writeJson(exportFile, -1L, snapshot, assignedByRole);
+            return true;
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Failed to export roles: %s", e.getMessage());
+            return false;
         }
     }
 
-    private boolean extractBooleanField(String json, String key) {
-        String pattern = "\"" + key + "\"";
-        int idx = json.indexOf(pattern);
-        if (idx < 0) {
+    /**
+     * Replace all roles and assignments with the contents of {@code roles.export.json}.
+     */
+    public boolean importJson() {
+        List<ChatRole> imported = new ArrayList<>();
+        Map<UUID, UUID> importedAssignments = new HashMap<>();
+        try {
+            readJson(exportFile, imported::add, importedAssignments::put);
+        } catch (Exception e) {
+            logger.at(Level.WARNING).log("Failed to import roles: %s", e.getMessage());
             return false;
         }
-        int colonIdx = json.indexOf(':', idx + pattern.length());
-        if (colonIdx < 0) {
-            return false;
+        synchronized (stateLock) {
+            try {
+                clearAssignments();
+            } catch (IOException e) {
+                logger.at(Level.WARNING).log("Failed to clear role assignments for import: %s", e.getMessage());
+                return false;
+            }
+            record(OP_CLEAR_ASSIGNMENTS);
+            for (UUID id : state.roles.keySet()) {
+                record(OP_DELETE_ROLE, id.toString());
+            }
+            RoleSnapshot.Builder next = new RoleSnapshot.Builder();
+            for (ChatRole role : imported) {
+                next.put(role);
+                record(encodeRole(role));
+            }
+            Set<UUID> previous = state.roles.keySet();
+            publish(next.build());
+            for (UUID id : previous) {
+                if (!next.contains(id)) {
+                    notifyRoleDeleted(id);
+                }
+            }
+            for (Map.Entry<UUID, UUID> entry : importedAssignments.entrySet()) {
+                if (next.contains(entry.getValue())) {
+                    assign(entry.getKey(), entry.getValue());
+                    record(OP_ASSIGN, entry.getKey().toString(), entry.getValue().toString());
+                }
+            }
         }
-        int start = colonIdx + 1;
-        while (start < json.length() && Character.isWhitespace(json.charAt(start))) {
-            start++;
+        saver.markDirty();
+        return true;
+    }
+
+    public Path getExportFile() {
+        return exportFile;
+    }
+
+    private void clearAssignments() throws IOException {
+        assignmentChanges++;
+        assignments.clear();
+        List<UUID> loaded = new ArrayList<>();
+        loadedAssignments.forEach((msb, lsb, value) -> loaded.add(new UUID(msb, lsb)));
+        for (UUID player : loaded) {
+            loadedAssignments.put(player, NO_ROLE);
         }
-        int end = start;
-        while (end < json.length()) {
-            char c = json.charAt(end);
-            if (c == ',' || c == '}' || c == ']' || c == '\n') {
-                break;
+    }
+
+    /**
+     * Apply one journal entry to a snapshot being loaded. Assignment entries only
+     * touch the store; loaded players are re-read once the snapshot is published.
+     */
+    private void applyJournalEntry(RoleSnapshot.Builder next, String[] entry) {
+        try {
+            switch (entry[0]) {
+                case OP_PUT_ROLE -> next.put(decodeRole(entry));
+                case OP_DELETE_ROLE -> next.remove(UUID.fromString(entry[1]));
+                case OP_ASSIGN -> {
+                    UUID roleId = UUID.fromString(entry[2]);
+                    if (next.contains(roleId)) {
+                        assignments.put(UUID.fromString(entry[1]), roleId);
+                    }
+                }
+                case OP_UNASSIGN -> assignments.remove(UUID.fromString(entry[1]));
+                case OP_CLEAR_ASSIGNMENTS -> assignments.clear();
+                default -> logger.at(Level.WARNING).log("Unknown role journal entry: %s", entry[0]);
             }
-            end++;
+        } catch (Exception e) {
+            logger.at(Level.WARNING).log("Failed to apply role journal entry %s: %s", entry[0], e.getMessage());
         }
-        return Boolean.parseBoolean(json.substring(start, end).trim());
     }
 
-    private List<String> extractStringArray(String json, String key) {
-        List<String> result = new ArrayList<>();
-        String pattern = "\"" + key + "\"";
-        int idx = json.indexOf(pattern);
-        if (idx < 0) {
-            return result;
-        }
-        int bracketStart = json.indexOf('[', idx + pattern.length());
-        if (bracketStart < 0) {
-            return result;
+    private static String[] encodeRole(ChatRole role) {
+        List<String> fields = new ArrayList<>();
+        fields.add(OP_PUT_ROLE);
+        fields.add(role.getId().toString());
+        fields.add(role.getName());
+        fields.add(role.getDisplayName());
+        fields.add(role.getColor());
+        fields.add(Boolean.toString(role.isBold()));
+        fields.add(Boolean.toString(role.isItalic()));
+        fields.add(Integer.toString(role.getPriority()));
+        fields.addAll(role.getGroups());
+        return fields.toArray(new String[0]);
+    }
+
+    private static ChatRole decodeRole(String[] entry) {
+        ChatRole role = new ChatRole(entry[2], entry[3], entry[4], Integer.parseInt(entry[7]));
+        role.setId(UUID.fromString(entry[1]));
+        role.setBold(Boolean.parseBoolean(entry[5]));
+        role.setItalic(Boolean.parseBoolean(entry[6]));
+        for (int i = 8; i < entry.length; i++) {
+            role.getGroups().add(entry[i]);
         }
-        int bracketEnd = json.indexOf(']', bracketStart);
-        if (bracketEnd < 0) {
-            return result;
+        return role;
+    }
+
+    /**
+     * @param assignedByRole members to embed per role (exports), or null for snapshots
+     */
+    private static void writeJson(Path file, long seq, List<ChatRole> snapshot, Map<UUID, List<UUID>> assignedByRole) throws IOException {
+        AtomicFiles.write(file, writer -> {
+            JsonWriter json = new JsonWriter(writer);
+            json.beginObject();
+            if (seq >= 0) {
+                json.name("JournalSeq").value(seq);
+            }
+            json.name("Roles").beginArray();
+            for (ChatRole r : snapshot) {
+                writeRole(json, r, assignedByRole == null ? null : assignedByRole.getOrDefault(r.getId(), List.of()));
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    /**
+     * Read a JSON snapshot into the given sinks. Returns the journal sequence the
+     * snapshot covers (0 for legacy files and exports).
+     */
+    private long readJson(Path file, Consumer<ChatRole> roleSink, BiConsumer<UUID, UUID> assignmentSink) throws IOException {
+        long seq = 0L;
+        try (JsonReader json = new JsonReader(Files.newBufferedReader(file))) {
+            JsonReader.Token token = json.peek();
+            if (token == JsonReader.Token.BEGIN_ARRAY) {
+                // Legacy format: a bare array written before the journal existed.
+                readRoles(json, roleSink, assignmentSink);
+            } else if (token == JsonReader.Token.BEGIN_OBJECT) {
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "JournalSeq" -> seq = json.nextLong();
+                        case "Roles" -> readRoles(json, roleSink, assignmentSink);
+                        default -> json.skipValue();
+                    }
+                }
+                json.endObject();
+            }
         }
-        String arrayContent = json.substring(bracketStart + 1, bracketEnd);
-        int pos = 0;
-        while (pos < arrayContent.length()) {
-            int quoteStart = arrayContent.indexOf('"', pos);
-            if (quoteStart < 0) {
-                break;
+        return seq;
+    }
+
+    private void writeBinary(Path file, long seq, List<ChatRole> snapshot) throws IOException {
+        BinarySnapshot.write(file, BINARY_KIND, compress, out -> {
+            out.writeLong(seq);
+            out.writeInt(snapshot.size());
+            for (ChatRole r : snapshot) {
+                out.writeUuid(r.getId());
+                out.writeString(r.getName());
+                out.writeString(r.getDisplayName());
+                out.writeString(r.getColor());
+                out.writeBoolean(r.isBold());
+                out.writeBoolean(r.isItalic());
+                out.writeInt(r.getPriority());
+                List<String> groups = r.getGroups();
+                out.writeInt(groups.size());
+                for (String group : groups) {
+                    out.writeString(group);
+                }
+            }
+            // Assignments live in their own shards now; older snapshots carried them here.
+            out.writeInt(0);
+        });
+    }
+
+    private long readBinary(Path file, Consumer<ChatRole> roleSink, BiConsumer<UUID, UUID> assignmentSink) throws IOException {
+        BinarySnapshot.Input in = BinarySnapshot.open(file, BINARY_KIND);
+        long seq = in.readLong();
+        // id, three string lengths, two flags, priority, group count
+        int roleCount = in.readCount(16 + 12 + 2 + 4 + 4);
+        for (int i = 0; i < roleCount; i++) {
+            ChatRole role = new ChatRole();
+            UUID id = in.readUuid();
+            if (id != null) {
+                role.setId(id);
+            }
+            role.setName(in.readString());
+            role.setDisplayName(in.readString());
+            role.setColor(in.readString());
+            role.setBold(in.readBoolean());
+            role.setItalic(in.readBoolean());
+            role.setPriority(in.readInt());
+            int groupCount = in.readCount(4);
+            List<String> groups = new ArrayList<>(groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                String group = in.readString();
+                if (group != null) {
+                    groups.add(group);
+                }
+            }
+            role.getGroups().addAll(groups);
+            if (role.getName() != null) {
+                roleSink.accept(role);
             }
-            int quoteEnd = findClosingQuote(arrayContent, quoteStart + 1);
-            if (quoteEnd < 0) {
-                break;
+        }
+        int assignmentCount = in.readCount(32);
+        for (int i = 0; i < assignmentCount; i++) {
+            UUID player = in.readUuid();
+            UUID roleId = in.readUuid();
+            if (player != null && roleId != null) {
+                assignmentSink.accept(player, roleId);
             }
-            result.add(unescapeJson(arrayContent.substring(quoteStart + 1, quoteEnd)));
-            pos = quoteEnd + 1;
         }
-        return result;
+        return seq;
     }
 
-    private int findClosingQuote(String str, int start) {
-        for (int i = start; i < str.length(); i++) {
-            if (str.charAt(i) == '\\') {
-                i++;
-                continue;
+    private static void writeRole(JsonWriter json, ChatRole r, List<UUID> assignedPlayers) throws IOException {
+        json.beginObject();
+        json.name("Id").value(r.getId().toString());
+        json.name("Name").value(r.getName());
+        json.name("DisplayName").value(r.getDisplayName());
+        json.name("Color").value(r.getColor());
+        json.name("Bold").value(r.isBold());
+        json.name("Italic").value(r.isItalic());
+        json.name("Priority").value(r.getPriority());
+        json.name("Groups").beginInlineArray();
+        for (String group : r.getGroups()) {
+            json.value(group);
+        }
+        json.endArray();
+        if (assignedPlayers != null) {
+            json.name("AssignedPlayers").beginInlineArray();
+            for (UUID player : assignedPlayers) {
+                json.value(player.toString());
             }
-            if (str.charAt(i) == '"') {
-                return i;
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private void readRoles(JsonReader json, Consumer<ChatRole> roleSink, BiConsumer<UUID, UUID> assignmentSink) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            int depth = json.depth();
+            try {
+                readRole(json, roleSink, assignmentSink);
+            } catch (IOException e) {
+                logger.at(Level.WARNING).log("Skipping malformed role entry: %s", e.getMessage());
+                json.skipRest(depth);
             }
         }
-        return -1;
+        json.endArray();
     }
 
-    private static String escapeJson(String value) {
-        if (value == null) {
-            return "";
+    /**
+     * Read one entry. A bad field value throws before anything reaches the sinks;
+     * {@link #readRoles} then skips the rest of the entry and drops only this role.
+     */
+    private void readRole(JsonReader json, Consumer<ChatRole> roleSink, BiConsumer<UUID, UUID> assignmentSink) throws IOException {
+        ChatRole role = new ChatRole();
+        String id = null;
+        List<String> assignedPlayers = new ArrayList<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "Id" -> id = json.nextStringOrNull();
+                case "Name" -> {
+                    String name = json.nextStringOrNull();
+                    if (name != null) {
+                        role.setName(name);
+                    }
+                }
+                case "DisplayName" -> {
+                    String displayName = json.nextStringOrNull();
+                    if (displayName != null) {
+                        role.setDisplayName(displayName);
+                    }
+                }
+                case "Color" -> {
+                    String color = json.nextStringOrNull();
+                    if (color != null && !color.isEmpty()) {
+                        role.setColor(color);
+                    }
+                }
+                case "Bold" -> role.setBold(json.nextBoolean());
+                case "Italic" -> role.setItalic(json.nextBoolean());
+                case "Priority" -> {
+                    int priority = json.nextInt();
+                    if (priority > 0) {
+                        role.setPriority(priority);
+                    }
+                }
+                case "Groups" -> readStrings(json, role.getGroups());
+                case "AssignedPlayers" -> readStrings(json, assignedPlayers);
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        try {
+            if (id != null && !id.isEmpty()) {
+                role.setId(UUID.fromString(id));
+            }
+        } catch (IllegalArgumentException e) {
+            logger.at(Level.WARNING).log("Failed to parse role entry: %s", e.getMessage());
+            return;
+        }
+        roleSink.accept(role);
+        for (String player : assignedPlayers) {
+            try {
+                assignmentSink.accept(UUID.fromString(player), role.getId());
+            } catch (IllegalArgumentException ignored) {
+                // Skip malformed UUIDs from old/bad data.
+            }
         }
-        return value.replace("\\", "\\\\")
-                     .replace("\"", "\\\"")
-                     .replace("\n", "\\n")
-                     .replace("\r", "\\r")
-                     .replace("\t", "\\t");
     }
 
-    private static String unescapeJson(String value) {
-        if (value == null) {
-            return "";
+    private static void readStrings(JsonReader json, List<String> into) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            String value = json.nextStringOrNull();
+            if (value != null) {
+                into.add(value);
+            }
         }
-        return value.replace("\\\"", "\"")
-                     .replace("\\n", "\n")
-                     .replace("\\r", "\r")
-                     .replace("\\t", "\t")
-                     .replace("\\\\", "\\");
+        json.endArray();
     }
 }
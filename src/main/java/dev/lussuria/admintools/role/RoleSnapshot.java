@@ -0,0 +1,126 @@
+package dev.lussuria.admintools.role;
+
+import dev.lussuria.admintools.util.PrefixIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable view of the role definitions and the indexes derived from them.
+ * {@link RoleManager} builds a new one off to the side for every change and
+ * publishes it with a single volatile write, so readers on the chat path never
+ * lock and never see a half-applied change or a half-loaded file. The
+ * {@link ChatRole} objects themselves are shared between snapshots.
+ */
+final class RoleSnapshot {
+    static final RoleSnapshot EMPTY = new Builder().build();
+
+    final Map<UUID, ChatRole> roles;
+    // Priority order, then name; sorted here so listings never sort.
+    final List<ChatRole> byPriority;
+    // Lower-cased role name -> role
+    final Map<String, ChatRole> rolesByName;
+    // Built once here and never modified afterwards.
+    final PrefixIndex names = new PrefixIndex();
+    // Upper-cased permission group -> best-priority role mapped to it
+    final Map<String, ChatRole> roleByGroup;
+    final Map<UUID, Integer> indexByRoleId;
+    // Compact role indices used by the loaded assignment table; null marks a free slot.
+    private final UUID[] roleIdByIndex;
+
+    private RoleSnapshot(Builder builder) {
+        this.roles = Map.copyOf(builder.roles);
+        Map<String, ChatRole> byName = new HashMap<>();
+        Map<String, ChatRole> byGroup = new HashMap<>();
+        for (ChatRole role : builder.roles.values()) {
+            byName.put(role.getName().toLowerCase(Locale.ROOT), role);
+            names.add(role.getName());
+            for (String group : role.getGroups()) {
+                if (group == null || group.isBlank()) {
+                    continue;
+                }
+                byGroup.merge(group.toUpperCase(Locale.ROOT), role,
+                    (current, candidate) -> candidate.getPriority() < current.getPriority() ? candidate : current);
+            }
+        }
+        List<ChatRole> sorted = new ArrayList<>(builder.roles.values());
+        sorted.sort(Comparator.comparingInt(ChatRole::getPriority)
+            .thenComparing(role -> role.getName().toLowerCase(Locale.ROOT)));
+        this.byPriority = List.copyOf(sorted);
+        this.rolesByName = Map.copyOf(byName);
+        this.roleByGroup = Map.copyOf(byGroup);
+        this.indexByRoleId = Map.copyOf(builder.indexByRoleId);
+        this.roleIdByIndex = builder.roleIdByIndex.clone();
+    }
+
+    UUID roleIdAt(int index) {
+        return index >= 0 && index < roleIdByIndex.length ? roleIdByIndex[index] : null;
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    static final class Builder {
+        private final Map<UUID, ChatRole> roles;
+        private final Map<UUID, Integer> indexByRoleId;
+        private UUID[] roleIdByIndex;
+
+        Builder() {
+            this.roles = new HashMap<>();
+            this.indexByRoleId = new HashMap<>();
+            this.roleIdByIndex = new UUID[0];
+        }
+
+        private Builder(RoleSnapshot snapshot) {
+            this.roles = new HashMap<>(snapshot.roles);
+            this.indexByRoleId = new HashMap<>(snapshot.indexByRoleId);
+            this.roleIdByIndex = snapshot.roleIdByIndex.clone();
+        }
+
+        /**
+         * Add or replace a role. Replacing keeps the role's index.
+         */
+        void put(ChatRole role) {
+            roles.put(role.getId(), role);
+            if (!indexByRoleId.containsKey(role.getId())) {
+                // Lowest free index, so the table stays as small as the live role count.
+                int index = 0;
+                while (index < roleIdByIndex.length && roleIdByIndex[index] != null) {
+                    index++;
+                }
+                if (index == roleIdByIndex.length) {
+                    roleIdByIndex = Arrays.copyOf(roleIdByIndex, index + 1);
+                }
+                roleIdByIndex[index] = role.getId();
+                indexByRoleId.put(role.getId(), index);
+            }
+        }
+
+        /**
+         * @return the index the role held, or null if it was not present
+         */
+        Integer remove(UUID id) {
+            roles.remove(id);
+            Integer index = indexByRoleId.remove(id);
+            if (index != null) {
+                roleIdByIndex[index] = null;
+            }
+            return index;
+        }
+
+        boolean contains(UUID id) {
+            return roles.containsKey(id);
+        }
+
+        RoleSnapshot build() {
+            return new RoleSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dev.lussuria.admintools.role;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Map from UUID to a non-negative int, stored as primitive arrays: two longs and
+ * an int per slot instead of two boxed UUIDs and a node per entry. Open
+ * addressing with linear probing and backward-shift deletion, split into
+ * independently locked stripes; readers of a stripe share its lock, writers take
+ * it exclusively.
+ */
+final class UuidIntMap {
+    static final int MISSING = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    UuidIntMap(int stripeCount) {
+        int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(MIN_CAPACITY);
+        }
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor<E extends Exception> {
+        void visit(long msb, long lsb, int value) throws E;
+    }
+
+    int get(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Stripe stripe = stripeFor(hash);
+        long stamp = stripe.lock.readLock();
+        try {
+            int slot = stripe.find(msb, lsb, hash);
+            return slot < 0 ? MISSING : stripe.values[slot];
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the previous value, or {@link #MISSING}
+     */
+    int put(UUID key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Stripe stripe = stripeFor(hash);
+        long stamp = stripe.lock.writeLock();
+        try {
+            return stripe.put(msb, lsb, hash, value);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the removed value, or {@link #MISSING}
+     */
+    int remove(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Stripe stripe = stripeFor(hash);
+        long stamp = stripe.lock.writeLock();
+        try {
+            int slot = stripe.find(msb, lsb, hash);
+            if (slot < 0) {
+                return MISSING;
+            }
+            int value = stripe.values[slot];
+            stripe.removeAt(slot);
+            return value;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Visit every entry, holding each stripe's read lock while it is visited.
+     */
+    <E extends Exception> void forEach(EntryVisitor<E> visitor) throws E {
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                int[] values = stripe.values;
+                long[] keys = stripe.keys;
+                for (int slot = 0; slot < values.length; slot++) {
+                    if (values[slot] != MISSING) {
+                        visitor.visit(keys[slot << 1], keys[(slot << 1) + 1], values[slot]);
+                    }
+                }
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    private Stripe stripeFor(int hash) {
+        // The slot index uses the low bits, so pick the stripe from the high ones.
+        return stripes[(hash >>> 24) & stripeMask];
+    }
+
+    static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static final class Stripe {
+        final StampedLock lock = new StampedLock();
+        // msb, lsb pairs; a slot is free when its value is MISSING
+        long[] keys;
+        int[] values;
+        int size;
+
+        Stripe(int capacity) {
+            keys = new long[capacity << 1];
+            values = new int[capacity];
+            Arrays.fill(values, MISSING);
+        }
+
+        int find(long msb, long lsb, int hash) {
+            int mask = values.length - 1;
+            int slot = hash & mask;
+            while (values[slot] != MISSING) {
+                if (keys[slot << 1] == msb && keys[(slot << 1) + 1] == lsb) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        int put(long msb, long lsb, int hash, int value) {
+            int mask = values.length - 1;
+            int slot = hash & mask;
+            while (values[slot] != MISSING) {
+                if (keys[slot << 1] == msb && keys[(slot << 1) + 1] == lsb) {
+                    int previous = values[slot];
+                    values[slot] = value;
+                    return previous;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot << 1] = msb;
+            keys[(slot << 1) + 1] = lsb;
+            values[slot] = value;
+            if (++size > values.length - (values.length >>> 2)) {
+                resize(values.length << 1);
+            }
+            return MISSING;
+        }
+
+        /**
+         * Free {@code slot} and shift later entries of the probe run back, so lookups
+         * never need tombstones.
+         */
+        void removeAt(int slot) {
+            int mask = values.length - 1;
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (values[next] != MISSING) {
+                int home = hash(keys[next << 1], keys[(next << 1) + 1]) & mask;
+                // Move the entry into the gap unless its home lies cyclically in (gap, next].
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap << 1] = keys[next << 1];
+                    keys[(gap << 1) + 1] = keys[(next << 1) + 1];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            values[gap] = MISSING;
+            size--;
+            if (values.length > MIN_CAPACITY && size < values.length >>> 3) {
+                resize(values.length >>> 1);
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity << 1];
+            values = new int[capacity];
+            Arrays.fill(values, MISSING);
+            int mask = capacity - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] == MISSING) {
+                    continue;
+                }
+                long msb = oldKeys[i << 1];
+                long lsb = oldKeys[(i << 1) + 1];
+                int slot = hash(msb, lsb) & mask;
+                while (values[slot] != MISSING) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot << 1] = msb;
+                keys[(slot << 1) + 1] = lsb;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
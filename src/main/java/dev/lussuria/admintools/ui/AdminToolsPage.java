@@ -13,8 +13,7 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import dev.lussuria.admintools.config.AdminToolsConfig;
 import dev.lussuria.admintools.util.MessageUtil;
-
-import java.util.Map;
+import dev.lussuria.admintools.util.Placeholders;
 
 public final class AdminToolsPage extends InteractiveCustomUIPage<AdminToolsPageEventData> {
     private final AdminToolsConfig.Ui ui;
@@ -37,9 +36,7 @@ public final class AdminToolsPage extends InteractiveCustomUIPage<AdminToolsPage
     ) {
         commands.append(ui.uiPath);
 
-        Map<String, String> placeholders = Map.of(
-            "player", this.playerRef.getUsername()
-        );
+        Placeholders placeholders = Placeholders.of("player", this.playerRef.getUsername());
 
         String title = MessageUtil.applyPlaceholders(ui.title, placeholders);
         String subtitle = MessageUtil.applyPlaceholders(ui.subtitle, placeholders);
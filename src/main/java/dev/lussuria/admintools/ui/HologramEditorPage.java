@@ -124,7 +124,7 @@ public final class HologramEditorPage extends InteractiveCustomUIPage<HologramEd
                 String text = data.getText();
                 if (text != null && !text.isBlank()) {
                     manager.addLine(hologram, text.trim());
-                    manager.respawnHologram(hologram);
+                    manager.refreshHologram(hologram);
                     manager.save();
                 }
                 refreshUI(hologram);
@@ -136,7 +136,7 @@ public final class HologramEditorPage extends InteractiveCustomUIPage<HologramEd
                         int idx = Integer.parseInt(text.trim()) - 1;
                         if (idx >= 0 && idx < hologram.getLines().size()) {
                             manager.removeLine(hologram, idx);
-                            manager.respawnHologram(hologram);
+                            manager.refreshHologram(hologram);
                             manager.save();
                         }
                     } catch (NumberFormatException ignored) {
@@ -3,16 +3,18 @@ package dev.lussuria.admintools.util;
 import com.hypixel.hytale.server.core.command.system.AbstractCommand;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 
 public final class CommandInputUtil {
+    public static final int SUGGESTION_LIMIT = 5;
+
     private CommandInputUtil() {
     }
 
@@ -76,56 +78,32 @@ public final class CommandInputUtil {
         return builder.toString();
     }
 
+    /**
+     * " Did you mean a, b?" for a failed lookup, or an empty string without suggestions.
+     */
+    public static String didYouMean(List<String> suggestions) {
+        if (suggestions == null || suggestions.isEmpty()) {
+            return "";
+        }
+        return " Did you mean " + String.join(", ", suggestions) + "?";
+    }
+
+    /**
+     * The named player, if they are currently in {@code world}.
+     */
     public static PlayerRef findPlayerByName(World world, String name) {
-        if (world == null || name == null || name.isBlank()) {
+        if (world == null) {
             return null;
         }
-        for (PlayerRef ref : world.getPlayerRefs()) {
-            if (ref != null && name.equalsIgnoreCase(ref.getUsername())) {
-                return ref;
-            }
-        }
-        return null;
+        OnlinePlayers.Online online = OnlinePlayers.find(name);
+        return online != null && online.world() == world ? online.ref() : null;
     }
 
     public static PlayerRef findOnlinePlayerByName(String name) {
-        if (name == null || name.isBlank()) {
-            return null;
-        }
-        Universe universe = Universe.get();
-        if (universe == null || universe.getWorlds() == null) {
-            return null;
-        }
-        for (World world : universe.getWorlds().values()) {
-            if (world == null) {
-                continue;
-            }
-            PlayerRef ref = findPlayerByName(world, name);
-            if (ref != null) {
-                return ref;
-            }
-        }
-        return null;
+        return OnlinePlayers.findByName(name);
     }
 
     public static PlayerRef findOnlinePlayerByUuid(UUID uuid) {
-        if (uuid == null) {
-            return null;
-        }
-        Universe universe = Universe.get();
-        if (universe == null || universe.getWorlds() == null) {
-            return null;
-        }
-        for (World world : universe.getWorlds().values()) {
-            if (world == null) {
-                continue;
-            }
-            for (PlayerRef ref : world.getPlayerRefs()) {
-                if (ref != null && uuid.equals(ref.getUuid())) {
-                    return ref;
-                }
-            }
-        }
-        return null;
+        return OnlinePlayers.findByUuid(uuid);
     }
 }
@@ -0,0 +1,157 @@
+package dev.lussuria.admintools.util;
+
+import com.hypixel.hytale.server.core.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A text template with {@code {name}} slots, parsed once. Rendering is a single
+ * pass into a reused per-thread buffer; slots the resolver does not know are
+ * written back unchanged.
+ */
+public final class MessageTemplate {
+    private static final int MAX_CACHED_TEMPLATES = 512;
+    private static final int MAX_RETAINED_BUFFER = 8192;
+    private static final Map<String, MessageTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final MessageTemplate EMPTY = new MessageTemplate("", List.of());
+
+    private final String source;
+    private final List<Segment> segments;
+    private final boolean hasSlots;
+
+    /**
+     * @param text literal text, or the slot name when {@code slot} is set
+     */
+    public record Segment(String text, boolean slot) {
+    }
+
+    private MessageTemplate(String source, List<Segment> segments) {
+        this.source = source;
+        this.segments = segments;
+        boolean slots = false;
+        for (Segment segment : segments) {
+            slots |= segment.slot();
+        }
+        this.hasSlots = slots;
+    }
+
+    /**
+     * Compiled form of {@code template}, shared between callers using the same text.
+     */
+    public static MessageTemplate of(String template) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+        MessageTemplate compiled = CACHE.get(template);
+        if (compiled == null) {
+            compiled = compile(template);
+            if (CACHE.size() >= MAX_CACHED_TEMPLATES) {
+                CACHE.clear();
+            }
+            CACHE.put(template, compiled);
+        }
+        return compiled;
+    }
+
+    public static MessageTemplate compile(String template) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+        List<Segment> segments = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < template.length()) {
+            int end = template.charAt(i) == '{' ? slotEnd(template, i + 1) : -1;
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (i > literalStart) {
+                segments.add(new Segment(template.substring(literalStart, i), false));
+            }
+            segments.add(new Segment(template.substring(i + 1, end), true));
+            i = end + 1;
+            literalStart = i;
+        }
+        if (literalStart < template.length()) {
+            segments.add(new Segment(template.substring(literalStart), false));
+        }
+        return new MessageTemplate(template, List.copyOf(segments));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    public boolean hasSlots() {
+        return hasSlots;
+    }
+
+    public String render(PlaceholderResolver resolver) {
+        if (!hasSlots) {
+            return source;
+        }
+        StringBuilder out = BUFFER.get();
+        if (out == null) {
+            // A resolver on this thread is rendering another template; don't share the buffer.
+            out = new StringBuilder(source.length() + 32);
+        } else {
+            BUFFER.set(null);
+            out.setLength(0);
+        }
+        try {
+            for (Segment segment : segments) {
+                if (!segment.slot()) {
+                    out.append(segment.text());
+                    continue;
+                }
+                String value = resolver == null ? null : resolver.resolve(segment.text());
+                if (value == null) {
+                    out.append('{').append(segment.text()).append('}');
+                } else {
+                    out.append(value);
+                }
+            }
+            return out.toString();
+        } finally {
+            if (out.capacity() <= MAX_RETAINED_BUFFER) {
+                BUFFER.set(out);
+            }
+        }
+    }
+
+    public Message toMessage(PlaceholderResolver resolver, boolean parse) {
+        String text = render(resolver);
+        if (!parse) {
+            return Message.raw(text);
+        }
+        // A template without slots renders to its source, so those always hit the same entry.
+        return ParsedMessageCache.shared().parse(text);
+    }
+
+    /**
+     * Index of the closing brace if a slot name starts at {@code start}, otherwise -1.
+     */
+    private static int slotEnd(String template, int start) {
+        int i = start;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '}') {
+                return i > start ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return -1;
+            }
+            i++;
+        }
+        return -1;
+    }
+}
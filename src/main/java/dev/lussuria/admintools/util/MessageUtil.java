@@ -3,22 +3,12 @@ package dev.lussuria.admintools.util;
 import com.hypixel.hytale.server.core.Message;
 import dev.lussuria.admintools.role.ChatRole;
 
-import java.util.Map;
-
 public final class MessageUtil {
     private MessageUtil() {
     }
 
-    public static Message renderMessage(String template, Map<String, String> placeholders, boolean parse) {
-        String text = applyPlaceholders(template, placeholders);
-        if (!parse) {
-            return Message.raw(text);
-        }
-        try {
-            return Message.parse(text);
-        } catch (Exception ex) {
-            return Message.raw(text);
-        }
+    public static Message renderMessage(String template, PlaceholderResolver placeholders, boolean parse) {
+        return MessageTemplate.of(template).toMessage(placeholders, parse);
     }
 
     public static Message buildRolePreview(ChatRole role) {
@@ -32,16 +22,10 @@ public final class MessageUtil {
         return msg;
     }
 
-    public static String applyPlaceholders(String template, Map<String, String> placeholders) {
-        if (template == null || template.isEmpty() || placeholders == null || placeholders.isEmpty()) {
+    public static String applyPlaceholders(String template, PlaceholderResolver placeholders) {
+        if (template == null || template.isEmpty()) {
             return template;
         }
-        String result = template;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            String key = "{" + entry.getKey() + "}";
-            String value = entry.getValue() == null ? "" : entry.getValue();
-            result = result.replace(key, value);
-        }
-        return result;
+        return MessageTemplate.of(template).render(placeholders);
     }
 }
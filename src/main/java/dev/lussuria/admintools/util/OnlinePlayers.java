@@ -0,0 +1,151 @@
+package dev.lussuria.admintools.util;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Universe-wide index of online players by UUID and by case-folded name, with the
+ * world each one is currently in. Kept up to date from add-to-world and disconnect
+ * events; the first lookup seeds it from the worlds, so players who joined before
+ * the plugin registered its listeners are still found.
+ */
+public final class OnlinePlayers {
+    private static final Map<UUID, Online> byUuid = new ConcurrentHashMap<>();
+    private static final Map<String, UUID> byName = new ConcurrentHashMap<>();
+    private static final PrefixIndex names = new PrefixIndex();
+    private static volatile boolean seeded;
+
+    private OnlinePlayers() {
+    }
+
+    public record Online(PlayerRef ref, World world) {
+    }
+
+    /**
+     * Record a player entering {@code world}, on join or when changing worlds.
+     */
+    public static void track(PlayerRef ref, World world) {
+        if (ref == null || ref.getUuid() == null) {
+            return;
+        }
+        Online previous = byUuid.put(ref.getUuid(), new Online(ref, world));
+        if (previous != null && previous.ref().getUsername() != null
+            && !previous.ref().getUsername().equalsIgnoreCase(ref.getUsername())) {
+            if (byName.remove(fold(previous.ref().getUsername()), ref.getUuid())) {
+                names.remove(previous.ref().getUsername());
+            }
+        }
+        if (ref.getUsername() != null) {
+            byName.put(fold(ref.getUsername()), ref.getUuid());
+            names.add(ref.getUsername());
+        }
+    }
+
+    public static void untrack(PlayerRef ref) {
+        if (ref == null || ref.getUuid() == null) {
+            return;
+        }
+        Online removed = byUuid.remove(ref.getUuid());
+        String name = removed != null ? removed.ref().getUsername() : ref.getUsername();
+        if (name != null && byName.remove(fold(name), ref.getUuid())) {
+            names.remove(name);
+        }
+    }
+
+    public static Online find(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        ensureSeeded();
+        return byUuid.get(uuid);
+    }
+
+    public static Online find(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        ensureSeeded();
+        UUID uuid = byName.get(fold(name));
+        return uuid == null ? null : byUuid.get(uuid);
+    }
+
+    public static PlayerRef findByName(String name) {
+        Online online = find(name);
+        return online == null ? null : online.ref();
+    }
+
+    public static PlayerRef findByUuid(UUID uuid) {
+        Online online = find(uuid);
+        return online == null ? null : online.ref();
+    }
+
+    /**
+     * Online player names starting with {@code prefix}, ignoring case.
+     */
+    public static List<String> completeNames(String prefix, int limit) {
+        ensureSeeded();
+        return names.complete(prefix, limit);
+    }
+
+    /**
+     * Close matches for a player name that was not found.
+     */
+    public static List<String> suggestNames(String name, int limit) {
+        ensureSeeded();
+        return names.suggest(name, limit);
+    }
+
+    public static Collection<Online> all() {
+        ensureSeeded();
+        return Collections.unmodifiableCollection(byUuid.values());
+    }
+
+    public static int count() {
+        ensureSeeded();
+        return byUuid.size();
+    }
+
+    public static void clear() {
+        byUuid.clear();
+        byName.clear();
+        names.clear();
+        seeded = false;
+    }
+
+    private static void ensureSeeded() {
+        if (seeded) {
+            return;
+        }
+        synchronized (OnlinePlayers.class) {
+            if (seeded) {
+                return;
+            }
+            for (World world : WorldCache.worlds()) {
+                if (world == null || world.getPlayerRefs() == null) {
+                    continue;
+                }
+                for (PlayerRef ref : world.getPlayerRefs()) {
+                    if (ref != null && ref.getUuid() != null) {
+                        byUuid.putIfAbsent(ref.getUuid(), new Online(ref, world));
+                        if (ref.getUsername() != null && byName.putIfAbsent(fold(ref.getUsername()), ref.getUuid()) == null) {
+                            names.add(ref.getUsername());
+                        }
+                    }
+                }
+            }
+            seeded = true;
+        }
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
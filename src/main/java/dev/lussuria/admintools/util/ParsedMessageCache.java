@@ -0,0 +1,107 @@
+package dev.lussuria.admintools.util;
+
+import com.hypixel.hytale.server.core.Message;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Least-recently-used cache of {@link Message#parse} results keyed by the markup
+ * text. The bound is both an entry count and a total number of cached characters,
+ * so a few very long templates cannot push out everything else. Parsing happens
+ * outside the lock; two threads missing on the same text may both parse it, and
+ * the last one wins.
+ * <p>
+ * Cached messages are shared, so callers must send them as they are rather than
+ * styling them further.
+ */
+public final class ParsedMessageCache {
+    private static final ParsedMessageCache SHARED = new ParsedMessageCache(1024, 256 * 1024);
+
+    private final int maxEntries;
+    private final long maxChars;
+    private final LinkedHashMap<String, Message> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long cachedChars;
+
+    public ParsedMessageCache(int maxEntries, long maxChars) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxChars = Math.max(1, maxChars);
+    }
+
+    public static ParsedMessageCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Parsed form of {@code text}; markup that fails to parse is cached as raw text.
+     */
+    public Message parse(String text) {
+        if (text == null) {
+            text = "";
+        }
+        synchronized (entries) {
+            Message cached = entries.get(text);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        Message parsed;
+        try {
+            parsed = Message.parse(text);
+        } catch (Exception ex) {
+            parsed = Message.raw(text);
+        }
+        // Texts that would take up a large share of the budget are not worth evicting others for.
+        if (text.length() <= maxChars / 8) {
+            store(text, parsed);
+        }
+        return parsed;
+    }
+
+    private void store(String text, Message parsed) {
+        synchronized (entries) {
+            Message previous = entries.put(text, parsed);
+            if (previous == null) {
+                cachedChars += text.length();
+            }
+            Iterator<Map.Entry<String, Message>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || cachedChars > maxChars) && eldest.hasNext()) {
+                cachedChars -= eldest.next().getKey().length();
+                eldest.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            cachedChars = 0;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getCachedChars() {
+        synchronized (entries) {
+            return cachedChars;
+        }
+    }
+}
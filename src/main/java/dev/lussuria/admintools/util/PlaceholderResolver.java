@@ -0,0 +1,12 @@
+package dev.lussuria.admintools.util;
+
+/**
+ * Supplies values for {@code {name}} slots in a {@link MessageTemplate}.
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+    /**
+     * Returns the value for {@code name}, or null to leave the slot as written.
+     */
+    String resolve(String name);
+}
@@ -0,0 +1,88 @@
+package dev.lussuria.admintools.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Small array-backed {@link PlaceholderResolver}. Values can be given directly or
+ * as suppliers that only run when a template actually uses the slot. Names not set
+ * here fall back to the global providers, e.g. {@code {online}}.
+ */
+public final class Placeholders implements PlaceholderResolver {
+    private static final Map<String, Supplier<String>> GLOBAL = new ConcurrentHashMap<>();
+
+    private String[] names = new String[4];
+    private Object[] values = new Object[4];
+    private int size;
+
+    private Placeholders() {
+    }
+
+    public static Placeholders create() {
+        return new Placeholders();
+    }
+
+    public static Placeholders of(String name, String value) {
+        return new Placeholders().with(name, value);
+    }
+
+    /**
+     * Register a server-wide placeholder available to every template.
+     */
+    public static void registerGlobal(String name, Supplier<String> provider) {
+        GLOBAL.put(name, provider);
+    }
+
+    public static void clearGlobals() {
+        GLOBAL.clear();
+    }
+
+    public Placeholders with(String name, String value) {
+        return put(name, value == null ? "" : value);
+    }
+
+    public Placeholders lazy(String name, Supplier<String> value) {
+        return put(name, value);
+    }
+
+    @Override
+    public String resolve(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                Object value = values[i];
+                if (value instanceof Supplier<?> supplier) {
+                    Object supplied = supplier.get();
+                    value = supplied == null ? "" : supplied.toString();
+                    // Later uses of the same slot reuse the computed value.
+                    values[i] = value;
+                }
+                return (String) value;
+            }
+        }
+        Supplier<String> provider = GLOBAL.get(name);
+        if (provider == null) {
+            return null;
+        }
+        String value = provider.get();
+        return value == null ? "" : value;
+    }
+
+    private Placeholders put(String name, Object value) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                values[i] = value;
+                return this;
+            }
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+        return this;
+    }
+}
@@ -0,0 +1,156 @@
+package dev.lussuria.admintools.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive prefix trie over names, for completions and "did you mean"
+ * hints. Lookups walk the prefix and then only the subtree below it, stopping
+ * once {@code limit} names are found, so the cost follows the size of the answer
+ * rather than the number of names indexed. Results come back in case-folded
+ * alphabetical order with their original spelling.
+ */
+public final class PrefixIndex {
+    private final Node root = new Node();
+    private int size;
+
+    private static final class Node {
+        // Sorted, so completions come out alphabetically without a separate sort.
+        final Map<Character, Node> children = new TreeMap<>();
+        String name;
+    }
+
+    public synchronized void add(String name) {
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        String folded = fold(name);
+        Node node = root;
+        for (int i = 0; i < folded.length(); i++) {
+            node = node.children.computeIfAbsent(folded.charAt(i), c -> new Node());
+        }
+        if (node.name == null) {
+            size++;
+        }
+        node.name = name;
+    }
+
+    public synchronized void remove(String name) {
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        String folded = fold(name);
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        for (int i = 0; i < folded.length() && node != null; i++) {
+            path.push(node);
+            node = node.children.get(folded.charAt(i));
+        }
+        if (node == null || node.name == null) {
+            return;
+        }
+        node.name = null;
+        size--;
+        // Prune branches that no longer lead to a name.
+        for (int i = folded.length() - 1; i >= 0 && node.name == null && node.children.isEmpty(); i--) {
+            Node parent = path.pop();
+            parent.children.remove(folded.charAt(i));
+            node = parent;
+        }
+    }
+
+    public synchronized void clear() {
+        root.children.clear();
+        root.name = null;
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Up to {@code limit} names starting with {@code prefix}, ignoring case.
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        Node node = find(prefix == null ? "" : fold(prefix));
+        if (node != null) {
+            collect(node, limit, result);
+        }
+        return result;
+    }
+
+    /**
+     * Names sharing the longest prefix with {@code input} that any indexed name has,
+     * for "did you mean" hints after a failed exact lookup. Empty when not even the
+     * first character matches.
+     */
+    public synchronized List<String> suggest(String input, int limit) {
+        List<String> result = new ArrayList<>();
+        if (input == null || input.isEmpty() || limit <= 0) {
+            return result;
+        }
+        String folded = fold(input);
+        Node node = root;
+        for (int i = 0; i < folded.length(); i++) {
+            Node next = node.children.get(folded.charAt(i));
+            if (next == null) {
+                break;
+            }
+            node = next;
+        }
+        if (node != root) {
+            collect(node, limit, result);
+        }
+        return result;
+    }
+
+    private Node find(String folded) {
+        Node node = root;
+        for (int i = 0; i < folded.length() && node != null; i++) {
+            node = node.children.get(folded.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Depth-first, in character order, without recursion so long names cannot
+     * overflow the stack.
+     */
+    private static void collect(Node start, int limit, List<String> into) {
+        Deque<Iterator<Node>> stack = new ArrayDeque<>();
+        if (start.name != null) {
+            into.add(start.name);
+        }
+        stack.push(start.children.values().iterator());
+        while (!stack.isEmpty() && into.size() < limit) {
+            Iterator<Node> children = stack.peek();
+            if (!children.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Node child = children.next();
+            if (child.name != null) {
+                into.add(child.name);
+            }
+            stack.push(child.children.values().iterator());
+        }
+        while (into.size() > limit) {
+            into.remove(into.size() - 1);
+        }
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,71 @@
+package dev.lussuria.admintools.util;
+
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Name-to-world lookup shared by hologram operations and command helpers.
+ * Invalidated from world add/remove events; a miss also triggers a rebuild when
+ * the universe's world count no longer matches, so an event that slipped past
+ * registration cannot leave the cache stale forever.
+ */
+public final class WorldCache {
+    private static volatile Map<String, World> worldsByName;
+
+    private WorldCache() {
+    }
+
+    public static World find(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        Map<String, World> worlds = snapshot();
+        World world = worlds.get(name);
+        if (world == null && worldCountChanged(worlds)) {
+            invalidate();
+            world = snapshot().get(name);
+        }
+        return world;
+    }
+
+    public static Collection<World> worlds() {
+        return snapshot().values();
+    }
+
+    public static void invalidate() {
+        worldsByName = null;
+    }
+
+    private static Map<String, World> snapshot() {
+        Map<String, World> worlds = worldsByName;
+        if (worlds == null) {
+            worlds = rebuild();
+            worldsByName = worlds;
+        }
+        return worlds;
+    }
+
+    private static Map<String, World> rebuild() {
+        Universe universe = Universe.get();
+        if (universe == null || universe.getWorlds() == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, World> result = new HashMap<>();
+        for (World world : universe.getWorlds().values()) {
+            if (world != null && world.getName() != null) {
+                result.put(world.getName(), world);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static boolean worldCountChanged(Map<String, World> cached) {
+        Universe universe = Universe.get();
+        return universe != null && universe.getWorlds() != null && universe.getWorlds().size() != cached.size();
+    }
+}
@@ -0,0 +1,191 @@
+package dev.lussuria.admintools.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeJournalTest {
+    @TempDir
+    Path dir;
+
+    private Path file() {
+        return dir.resolve("test.journal");
+    }
+
+    private Path previousFile() {
+        return dir.resolve("test.journal.1");
+    }
+
+    private static List<String> replay(ChangeJournal journal, long snapshotSeq) throws IOException {
+        List<String> applied = new ArrayList<>();
+        journal.replay(snapshotSeq, fields -> applied.add(String.join("|", fields)));
+        return applied;
+    }
+
+    @Test
+    void replaysEntriesInOrderAfterReopen() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        assertEquals(1L, journal.append("put", "a"));
+        assertEquals(2L, journal.append("put", "b"));
+        assertEquals(3L, journal.append("delete", "a"));
+        journal.close();
+
+        ChangeJournal reopened = new ChangeJournal(file());
+        assertEquals(List.of("put|a", "put|b", "delete|a"), replay(reopened, 0L));
+        assertEquals(3L, reopened.getLastSeq());
+        assertEquals(3, reopened.size());
+        assertEquals(4L, reopened.append("put", "c"));
+    }
+
+    @Test
+    void roundTripsEscapedFieldsAndNull() throws IOException {
+        String[] fields = {"tab\there", "line\nbreak\r", "back\\slash", null, "", "\\0"};
+        ChangeJournal journal = new ChangeJournal(file());
+        journal.append(fields);
+        journal.close();
+
+        List<String[]> applied = new ArrayList<>();
+        new ChangeJournal(file()).replay(0L, applied::add);
+        assertEquals(1, applied.size());
+        assertArrayEquals(fields, applied.get(0));
+    }
+
+    @Test
+    void skipsEntriesCoveredBySnapshotAndCountsOnlyAppliedOnes() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        for (int i = 1; i <= 5; i++) {
+            journal.append("put", Integer.toString(i));
+        }
+        journal.close();
+
+        ChangeJournal reopened = new ChangeJournal(file());
+        assertEquals(List.of("put|4", "put|5"), replay(reopened, 3L));
+        assertEquals(2, reopened.size());
+        assertEquals(5L, reopened.getLastSeq());
+
+        ChangeJournal upToDate = new ChangeJournal(file());
+        assertEquals(List.of(), replay(upToDate, 5L));
+        assertEquals(0, upToDate.size());
+        assertEquals(6L, upToDate.append("put", "6"));
+    }
+
+    @Test
+    void skipsTruncatedLastLineAndKeepsLaterAppendsReadable() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        journal.append("put", "a");
+        journal.append("put", "b");
+        journal.close();
+        byte[] bytes = Files.readAllBytes(file());
+        // Cut the second entry mid-line, as a crash during the write would.
+        Files.write(file(), Arrays.copyOf(bytes, bytes.length - 5));
+
+        ChangeJournal reopened = new ChangeJournal(file());
+        assertEquals(List.of("put|a"), replay(reopened, 0L));
+        assertEquals(2L, reopened.append("put", "c"));
+        reopened.close();
+
+        assertEquals(List.of("put|a", "put|c"), replay(new ChangeJournal(file()), 0L));
+    }
+
+    @Test
+    void skipsLineWithBadChecksum() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        journal.append("put", "first");
+        journal.append("put", "second");
+        journal.append("put", "third");
+        journal.close();
+        String text = Files.readString(file(), StandardCharsets.UTF_8);
+        Files.writeString(file(), text.replace("second", "secomd"), StandardCharsets.UTF_8);
+
+        assertEquals(List.of("put|first", "put|third"), replay(new ChangeJournal(file()), 0L));
+    }
+
+    @Test
+    void skipsGarbageLines() throws IOException {
+        Files.writeString(file(), "not a journal line\n\n\tdeadbeef\n", StandardCharsets.UTF_8);
+        ChangeJournal journal = new ChangeJournal(file());
+        assertEquals(List.of(), replay(journal, 0L));
+        assertEquals(1L, journal.append("put", "a"));
+    }
+
+    @Test
+    void replaysRolledOverFileBeforeActiveFile() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        journal.append("put", "a");
+        journal.append("put", "b");
+        assertEquals(2L, journal.rollOver());
+        journal.append("put", "c");
+        journal.close();
+        // Crash before the snapshot covering seq 2 was written.
+        assertTrue(Files.exists(previousFile()));
+
+        ChangeJournal reopened = new ChangeJournal(file());
+        assertEquals(List.of("put|a", "put|b", "put|c"), replay(reopened, 0L));
+        assertEquals(3, reopened.size());
+    }
+
+    @Test
+    void snapshotWrittenButRolledOverFileNotDeletedIsNotReappliedTwice() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        journal.append("put", "a");
+        journal.append("put", "b");
+        long covered = journal.rollOver();
+        journal.append("put", "c");
+        journal.close();
+
+        // The snapshot at seq 2 made it to disk, the .1 file was not yet deleted.
+        ChangeJournal reopened = new ChangeJournal(file());
+        assertEquals(List.of("put|c"), replay(reopened, covered));
+        assertEquals(1, reopened.size());
+    }
+
+    @Test
+    void entryCountDropsOnlyOnceSnapshotIsDiscarded() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        journal.append("put", "a");
+        journal.append("put", "b");
+        journal.rollOver();
+        assertEquals(2, journal.size());
+        journal.append("put", "c");
+        assertEquals(3, journal.size());
+
+        journal.discardRolledOver();
+        assertEquals(1, journal.size());
+        assertFalse(Files.exists(previousFile()));
+    }
+
+    @Test
+    void failedCompactionKeepsEveryEntryAcrossSecondRollOver() throws IOException {
+        ChangeJournal journal = new ChangeJournal(file());
+        journal.append("put", "a");
+        journal.rollOver();
+        // The snapshot failed; more edits arrive and the next compaction rolls over again.
+        journal.append("put", "b");
+        journal.append("put", "c");
+        assertEquals(3L, journal.rollOver());
+        assertEquals(3, journal.size());
+        assertFalse(Files.exists(file()));
+        journal.close();
+
+        assertEquals(List.of("put|a", "put|b", "put|c"), replay(new ChangeJournal(file()), 0L));
+
+        ChangeJournal compacted = new ChangeJournal(file());
+        replay(compacted, 0L);
+        compacted.rollOver();
+        compacted.discardRolledOver();
+        assertEquals(0, compacted.size());
+        assertFalse(Files.exists(previousFile()));
+    }
+}
@@ -0,0 +1,167 @@
+package dev.lussuria.admintools.role;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UuidIntMapTest {
+    // A new stripe's table size; keys are picked by their home slot in it.
+    private static final int CAPACITY = 16;
+
+    @Test
+    void putGetReplaceRemove() {
+        UuidIntMap map = new UuidIntMap(4);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        assertEquals(UuidIntMap.MISSING, map.get(a));
+        assertEquals(UuidIntMap.MISSING, map.put(a, 0));
+        assertEquals(UuidIntMap.MISSING, map.put(b, 7));
+        assertEquals(0, map.get(a));
+        assertEquals(0, map.put(a, 3));
+        assertEquals(3, map.get(a));
+        assertEquals(3, map.remove(a));
+        assertEquals(UuidIntMap.MISSING, map.remove(a));
+        assertEquals(UuidIntMap.MISSING, map.get(a));
+        assertEquals(7, map.get(b));
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        UuidIntMap map = new UuidIntMap(1);
+        assertThrows(IllegalArgumentException.class, () -> map.put(UUID.randomUUID(), -1));
+    }
+
+    @Test
+    void deletesFromProbeRunThatWrapsAroundTableEnd() {
+        Random random = new Random(42);
+        // Homes 14, 14, 14, 15, 0, 0, 1: inserted in this order they fill slots 14..4,
+        // crossing the end of the table with entries displaced from both sides.
+        int[] homes = {14, 14, 14, 15, 0, 0, 1};
+        List<UUID> keys = new ArrayList<>();
+        for (int home : homes) {
+            keys.add(keyWithHome(random, home));
+        }
+
+        for (int removed = 0; removed < keys.size(); removed++) {
+            UuidIntMap map = new UuidIntMap(1);
+            Map<UUID, Integer> expected = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                map.put(keys.get(i), i);
+                expected.put(keys.get(i), i);
+            }
+            assertEquals(removed, map.remove(keys.get(removed)));
+            expected.remove(keys.get(removed));
+            assertContents(expected, map, keys);
+
+            // Reinserting lands it somewhere in the same run; everything stays reachable.
+            map.put(keys.get(removed), 100 + removed);
+            expected.put(keys.get(removed), 100 + removed);
+            assertContents(expected, map, keys);
+        }
+    }
+
+    @Test
+    void drainsAndRefillsWrappedClusterInEveryOrder() {
+        Random random = new Random(7);
+        int[] homes = {15, 15, 0, 14, 1};
+        List<UUID> keys = new ArrayList<>();
+        for (int home : homes) {
+            keys.add(keyWithHome(random, home));
+        }
+        for (List<UUID> order : permutations(keys)) {
+            UuidIntMap map = new UuidIntMap(1);
+            Map<UUID, Integer> expected = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                map.put(keys.get(i), i);
+                expected.put(keys.get(i), i);
+            }
+            for (UUID key : order) {
+                assertEquals(expected.remove(key), map.remove(key));
+                assertContents(expected, map, keys);
+            }
+            for (UUID key : order) {
+                map.put(key, 5);
+                expected.put(key, 5);
+                assertContents(expected, map, keys);
+            }
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperationsAcrossResizes() {
+        Random random = new Random(1234);
+        UuidIntMap map = new UuidIntMap(4);
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> universe = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            universe.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        for (int round = 0; round < 3; round++) {
+            // Grow well past several resizes, then shrink back down through them.
+            for (int op = 0; op < 4000; op++) {
+                UUID key = universe.get(random.nextInt(universe.size()));
+                if (random.nextInt(4) == 0) {
+                    assertEquals(orMissing(expected.remove(key)), map.remove(key));
+                } else {
+                    int value = random.nextInt(1000);
+                    assertEquals(orMissing(expected.put(key, value)), map.put(key, value));
+                }
+            }
+            assertContents(expected, map, universe);
+            for (UUID key : universe) {
+                if (random.nextInt(10) != 0) {
+                    assertEquals(orMissing(expected.remove(key)), map.remove(key));
+                }
+            }
+            assertContents(expected, map, universe);
+        }
+    }
+
+    private static void assertContents(Map<UUID, Integer> expected, UuidIntMap map, List<UUID> probes) {
+        for (UUID key : probes) {
+            assertEquals(orMissing(expected.get(key)), map.get(key), "value of " + key);
+        }
+        Map<UUID, Integer> visited = new HashMap<>();
+        map.forEach((msb, lsb, value) -> visited.put(new UUID(msb, lsb), value));
+        assertEquals(expected, visited);
+    }
+
+    private static int orMissing(Integer value) {
+        return value == null ? UuidIntMap.MISSING : value;
+    }
+
+    private static UUID keyWithHome(Random random, int home) {
+        while (true) {
+            UUID key = new UUID(random.nextLong(), random.nextLong());
+            if ((UuidIntMap.hash(key.getMostSignificantBits(), key.getLeastSignificantBits()) & (CAPACITY - 1)) == home) {
+                return key;
+            }
+        }
+    }
+
+    private static List<List<UUID>> permutations(List<UUID> items) {
+        if (items.isEmpty()) {
+            List<List<UUID>> single = new ArrayList<>();
+            single.add(new ArrayList<>());
+            return single;
+        }
+        List<List<UUID>> result = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            List<UUID> rest = new ArrayList<>(items);
+            UUID first = rest.remove(i);
+            for (List<UUID> tail : permutations(rest)) {
+                tail.add(0, first);
+                result.add(tail);
+            }
+        }
+        return result;
+    }
+}